@@ -0,0 +1,36 @@
+package org.zeveon.benchmark;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.util.ReflectionUtils;
+import org.zeveon.model.HostCheckRate;
+import org.zeveon.model.Method;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * @author Stanislav Vafin
+ */
+public class BenchmarkUtil {
+
+    public static void setField(Object target, String name, Object value) {
+        var field = Objects.requireNonNull(ReflectionUtils.findField(target.getClass(), name));
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    public static HostCheckRate checkRate(Long hostId, Method method, Duration checkRate, ZonedDateTime modifiedDate) {
+        return new SimpleHostCheckRate(hostId, method, checkRate, modifiedDate);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class SimpleHostCheckRate implements HostCheckRate {
+        private final Long hostId;
+        private final Method method;
+        private final Duration checkRate;
+        private final ZonedDateTime modifiedDate;
+    }
+}
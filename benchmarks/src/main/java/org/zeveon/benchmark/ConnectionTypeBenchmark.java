@@ -0,0 +1,70 @@
+package org.zeveon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.zeveon.model.ConnectionType;
+import org.zeveon.model.ProbeTarget;
+import org.zeveon.model.ProbeTargets;
+import org.zeveon.model.Protocol;
+import org.zeveon.util.UrlUtil;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Stanislav Vafin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionTypeBenchmark {
+
+    private final String url = "https://status.example.com";
+
+    private final String urlWithoutProtocol = "status.example.com";
+
+    private final Optional<Protocol> protocol = Optional.of(Protocol.HTTP);
+
+    private final ProbeTargets probeTargets = new ProbeTargets(url);
+
+    private boolean needAppender;
+
+    @Benchmark
+    public ConnectionType getByFields() {
+        needAppender = !needAppender;
+        return ConnectionType.getByFields(needAppender, true);
+    }
+
+    @Benchmark
+    public List<ConnectionType> reorder() {
+        return ConnectionType.reorder(ConnectionType.NO_APPENDER_ST_PROTO);
+    }
+
+    @Benchmark
+    public List<ProbeTarget> getVariants() {
+        return probeTargets.getVariants(ConnectionType.NO_APPENDER_CH_PROTO, protocol);
+    }
+
+    @Benchmark
+    public ProbeTargets buildProbeTargets() {
+        return new ProbeTargets(url);
+    }
+
+    @Benchmark
+    public String modifyUrl() {
+        return UrlUtil.modifyUrl(url, ConnectionType.APPENDER_CH_PROTO, protocol);
+    }
+
+    @Benchmark
+    public String modifyUrlWithoutProtocol() {
+        return UrlUtil.modifyUrl(urlWithoutProtocol, ConnectionType.APPENDER_ST_PROTO, Optional.empty());
+    }
+
+    @Benchmark
+    public Optional<Protocol> getProtocol() {
+        return UrlUtil.getProtocol(url);
+    }
+}
@@ -0,0 +1,57 @@
+package org.zeveon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.zeveon.util.CurlRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Stanislav Vafin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurlRequestBenchmark {
+
+    private final String url = "https://status.example.com/robots.txt";
+
+    /**
+     * Header output of {@code curl -I -L} following one redirect
+     */
+    private final List<String> headerLines = List.of(
+            "HTTP/1.1 301 Moved Permanently",
+            "Server: nginx",
+            "Content-Type: text/html",
+            "Location: https://status.example.com/robots.txt",
+            "",
+            "HTTP/2 200 ",
+            "server: nginx",
+            "content-type: text/plain",
+            "content-length: 67",
+            "cache-control: max-age=3600",
+            "");
+
+    @Benchmark
+    public CurlRequest build() {
+        return CurlRequest.builder(url)
+                .head()
+                .location()
+                .silent()
+                .connectTimeout(3)
+                .header("User-Agent", "StatusHealthBot")
+                .build();
+    }
+
+    @Benchmark
+    public int parseStatusCode() {
+        var statusCode = 0;
+        for (var line : headerLines) {
+            statusCode = CurlRequest.parseStatusCode(line).orElse(statusCode);
+        }
+        return statusCode;
+    }
+}
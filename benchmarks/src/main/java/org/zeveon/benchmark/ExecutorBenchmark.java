@@ -0,0 +1,108 @@
+package org.zeveon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.zeveon.config.ExecutorConfig;
+import org.zeveon.model.ExecutionMode;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.zeveon.benchmark.BenchmarkUtil.setField;
+
+/**
+ * Drains a queue of blocking probe stand-ins with the listener execution modes: synchronously on the listener
+ * threads, or handed over to the health-check executor under the global semaphore.
+ *
+ * @author Stanislav Vafin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorBenchmark {
+
+    private static final long PROBE_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final int HEALTH_CHECK_THREADS = 200;
+    private static final int HEALTH_CHECK_QUEUE_CAPACITY = 10000;
+    private static final int MAX_CONCURRENT_CHECKS = 1000;
+
+    @Param({"LISTENER", "EXECUTOR"})
+    private ExecutionMode executionMode;
+
+    @Param({"8"})
+    private int listenerThreads;
+
+    @Param({"500", "2000"})
+    private int probes;
+
+    private ExecutorService listenerExecutor;
+
+    private ThreadPoolTaskExecutor healthCheckExecutor;
+
+    private Semaphore healthCheckPermits;
+
+    @Setup
+    public void setUp() {
+        var executorConfig = new ExecutorConfig();
+        setField(executorConfig, "healthCheckThreads", HEALTH_CHECK_THREADS);
+        setField(executorConfig, "healthCheckQueueCapacity", HEALTH_CHECK_QUEUE_CAPACITY);
+        setField(executorConfig, "maxConcurrentChecks", MAX_CONCURRENT_CHECKS);
+        healthCheckExecutor = executorConfig.healthCheckExecutor();
+        healthCheckExecutor.initialize();
+        healthCheckPermits = executorConfig.healthCheckPermits();
+        listenerExecutor = Executors.newFixedThreadPool(listenerThreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        listenerExecutor.shutdownNow();
+        healthCheckExecutor.shutdown();
+    }
+
+    @Benchmark
+    public void listen() throws InterruptedException {
+        var consumed = new AtomicInteger();
+        var completed = new CountDownLatch(probes);
+        for (int i = 0; i < listenerThreads; i++) {
+            listenerExecutor.execute(() -> {
+                while (consumed.getAndIncrement() < probes) {
+                    consume(completed);
+                }
+            });
+        }
+        completed.await();
+    }
+
+    private void consume(CountDownLatch completed) {
+        switch (executionMode) {
+            case LISTENER -> {
+                probe();
+                completed.countDown();
+            }
+            case EXECUTOR -> {
+                healthCheckPermits.acquireUninterruptibly();
+                healthCheckExecutor.execute(() -> {
+                    try {
+                        probe();
+                    } finally {
+                        healthCheckPermits.release();
+                        completed.countDown();
+                    }
+                });
+            }
+        }
+    }
+
+    private void probe() {
+        LockSupport.parkNanos(PROBE_LATENCY_NANOS);
+    }
+}
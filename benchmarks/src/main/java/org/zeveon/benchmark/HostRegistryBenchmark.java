@@ -0,0 +1,59 @@
+package org.zeveon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.zeveon.data.HostRegistry;
+import org.zeveon.entity.Host;
+import org.zeveon.model.Method;
+import org.zeveon.util.ResponseTimeAccumulator;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * @author Stanislav Vafin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HostRegistryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int hosts;
+
+    private HostRegistry hostRegistry;
+
+    @Setup
+    public void setUp() {
+        hostRegistry = new HostRegistry();
+        hostRegistry.initialize(LongStream.range(0, hosts)
+                .mapToObj(id -> Host.builder()
+                        .id(id)
+                        .url("https://host-%d.example.com".formatted(id))
+                        .build())
+                .toList());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Host> getHostById() {
+        return hostRegistry.getHostById(ThreadLocalRandom.current().nextLong(hosts));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ResponseTimeAccumulator getAccumulator() {
+        return hostRegistry.getAccumulator(ThreadLocalRandom.current().nextLong(hosts), Method.APACHE_HTTP_CLIENT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Host> getHosts() {
+        return hostRegistry.getHosts();
+    }
+}
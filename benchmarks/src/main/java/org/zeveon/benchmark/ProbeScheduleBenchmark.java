@@ -0,0 +1,79 @@
+package org.zeveon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.zeveon.data.ProbeSchedule;
+import org.zeveon.model.HostCheckRate;
+import org.zeveon.model.Method;
+import org.zeveon.model.ProbeTask;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.zeveon.benchmark.BenchmarkUtil.checkRate;
+import static org.zeveon.benchmark.BenchmarkUtil.setField;
+
+/**
+ * Due-host computation per scheduler tick: heap polling against a full readiness scan of every host.
+ *
+ * @author Stanislav Vafin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProbeScheduleBenchmark {
+
+    private static final Duration CHECK_RATE = Duration.ofSeconds(100);
+
+    private static final Duration IN_FLIGHT_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"1000", "10000", "100000"})
+    private int hosts;
+
+    private List<HostCheckRate> checkRates;
+
+    private ProbeSchedule probeSchedule;
+
+    private Instant now;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        now = Instant.now();
+        checkRates = LongStream.range(0, hosts)
+                .mapToObj(id -> checkRate(id, Method.APACHE_HTTP_CLIENT, CHECK_RATE,
+                        ZonedDateTime.ofInstant(now.minusSeconds(random.nextInt((int) CHECK_RATE.toSeconds())), ZoneOffset.UTC)))
+                .toList();
+        probeSchedule = new ProbeSchedule();
+        setField(probeSchedule, "inFlightTimeout", IN_FLIGHT_TIMEOUT);
+        probeSchedule.initialize(checkRates);
+    }
+
+    @Benchmark
+    public List<ProbeTask> pollDue() {
+        now = now.plusSeconds(1);
+        return probeSchedule.pollDue(now);
+    }
+
+    @Benchmark
+    public long fullScan() {
+        var current = ZonedDateTime.now();
+        return checkRates.stream()
+                .filter(c -> c.getCheckRate().minus(Duration.between(c.getModifiedDate(), current)).isNegative())
+                .count();
+    }
+
+    @Benchmark
+    public void updateHost() {
+        var checkRate = checkRates.get((int) (now.getEpochSecond() % hosts));
+        probeSchedule.update(List.of(checkRate.getHostId()), List.of(checkRate));
+    }
+}
@@ -0,0 +1,180 @@
+package org.zeveon.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.*;
+import org.zeveon.component.CheckHistoryWriter;
+import org.zeveon.component.CurlClient;
+import org.zeveon.component.HealthCheckMetrics;
+import org.zeveon.component.StatisticWriter;
+import org.zeveon.data.HostRegistry;
+import org.zeveon.entity.Host;
+import org.zeveon.model.BotInfo;
+import org.zeveon.model.CurlMode;
+import org.zeveon.model.Method;
+import org.zeveon.service.impl.HealthCheckServiceImpl;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.zeveon.benchmark.BenchmarkUtil.setField;
+
+/**
+ * End-to-end probe of a single host per {@link Method} against an in-process stub HTTP server.
+ * Statistic persistence is kept in the write-behind buffer and never reaches the database.
+ *
+ * @author Stanislav Vafin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class ProbeThroughputBenchmark {
+
+    private static final int CONNECTION_TIMEOUT = 3;
+
+    private static final String HEAD = "HEAD";
+
+    private static final byte[] RESPONSE_BODY = "OK".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"APACHE_HTTP_CLIENT", "JAVA_HTTP_CLIENT", "CURL_PROCESS"})
+    private Method method;
+
+    @Param({"NATIVE"})
+    private CurlMode curlMode;
+
+    private final AtomicLong hostIds = new AtomicLong();
+
+    private final BotInfo botInfo = BotInfo.builder()
+            .botUsername("benchmark")
+            .healthCheckConnectionTimeout(CONNECTION_TIMEOUT)
+            .build();
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private ExecutorService javaHttpClientExecutor;
+
+    private ExecutorService healthCheckExecutor;
+
+    private CloseableHttpClient apacheHttpClient;
+
+    private CurlClient curlClient;
+
+    private HostRegistry hostRegistry;
+
+    private HealthCheckServiceImpl healthCheckService;
+
+    private List<Long> hosts;
+
+    @Setup
+    public void setUp() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                if (HEAD.equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, RESPONSE_BODY.length);
+                    exchange.getResponseBody().write(RESPONSE_BODY);
+                }
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        javaHttpClientExecutor = Executors.newFixedThreadPool(4);
+        healthCheckExecutor = Executors.newCachedThreadPool();
+        var connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(50);
+        apacheHttpClient = HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .setUserAgent(botInfo.getBotUsername())
+                .build();
+        var javaHttpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(CONNECTION_TIMEOUT))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(javaHttpClientExecutor)
+                .build();
+        curlClient = new CurlClient(javaHttpClientExecutor);
+        setField(curlClient, "mode", curlMode);
+        setField(curlClient, "maxTime", CONNECTION_TIMEOUT);
+        setField(curlClient, "maxProcesses", 16);
+
+        var healthCheckMetrics = new HealthCheckMetrics(new SimpleMeterRegistry());
+        var statisticWriter = new StatisticWriter(null, healthCheckMetrics);
+        setField(statisticWriter, "batchSize", Integer.MAX_VALUE);
+        var checkHistoryWriter = new CheckHistoryWriter(null, healthCheckMetrics);
+        setField(checkHistoryWriter, "enabled", false);
+
+        hostRegistry = new HostRegistry();
+        healthCheckService = new HealthCheckServiceImpl(apacheHttpClient, javaHttpClient, curlClient, hostRegistry,
+                statisticWriter, checkHistoryWriter, healthCheckExecutor, healthCheckMetrics);
+        setField(healthCheckService, "race", false);
+        setField(healthCheckService, "revalidationBase", Duration.ofMinutes(1));
+        setField(healthCheckService, "revalidationMax", Duration.ofHours(1));
+
+        var url = "http://127.0.0.1:%d".formatted(server.getAddress().getPort());
+        hosts = List.of(registerHost(url), registerHost(url), registerHost(url), registerHost(url));
+        hosts.forEach(this::probe);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        curlClient.shutdown();
+        apacheHttpClient.close();
+        healthCheckExecutor.shutdownNow();
+        javaHttpClientExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void probe(ThreadIndex threadIndex) {
+        probe(hosts.get(threadIndex.index));
+    }
+
+    private void probe(Long hostId) {
+        healthCheckService.checkHealth(hostId, method, botInfo, (m, healthInfo) -> {
+        }).join();
+    }
+
+    private Long registerHost(String url) {
+        var hostId = hostIds.incrementAndGet();
+        hostRegistry.addAll(List.of(Host.builder()
+                .id(hostId)
+                .url(url)
+                .build()));
+        return hostId;
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadIndex {
+
+        private static final AtomicLong COUNTER = new AtomicLong();
+
+        private int index;
+
+        @Setup
+        public void setUp() {
+            index = (int) (COUNTER.getAndIncrement() % 4);
+        }
+    }
+}
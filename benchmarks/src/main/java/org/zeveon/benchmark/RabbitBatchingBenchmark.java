@@ -0,0 +1,118 @@
+package org.zeveon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Host id publishing through plain and batching templates. The broker is stubbed with a channel
+ * that parks for a fixed round trip on every publish, so the result reflects publish call count
+ * and client-side conversion cost rather than real broker throughput.
+ *
+ * @author Stanislav Vafin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RabbitBatchingBenchmark {
+
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private static final String QUEUE = "hosts";
+
+    @Param({"1", "100", "500"})
+    private int batchSize;
+
+    @Param({"1000"})
+    private int hosts;
+
+    private final AtomicLong publishes = new AtomicLong();
+
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    private RabbitTemplate rabbitTemplate;
+
+    @Setup
+    public void setUp() {
+        var connectionFactory = stubConnectionFactory();
+        if (batchSize > 1) {
+            taskScheduler = new ThreadPoolTaskScheduler();
+            taskScheduler.initialize();
+            rabbitTemplate = new BatchingRabbitTemplate(connectionFactory,
+                    new SimpleBatchingStrategy(batchSize, Integer.MAX_VALUE, 100), taskScheduler);
+        } else {
+            rabbitTemplate = new RabbitTemplate(connectionFactory);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    @Benchmark
+    public long send() {
+        for (long hostId = 0; hostId < hosts; hostId++) {
+            rabbitTemplate.convertAndSend(QUEUE, hostId);
+        }
+        if (rabbitTemplate instanceof BatchingRabbitTemplate batchingRabbitTemplate) {
+            batchingRabbitTemplate.flush();
+        }
+        return publishes.get();
+    }
+
+    private ConnectionFactory stubConnectionFactory() {
+        var channel = proxy(com.rabbitmq.client.Channel.class, (p, m, a) -> switch (m.getName()) {
+            case "basicPublish" -> {
+                publishes.incrementAndGet();
+                LockSupport.parkNanos(ROUND_TRIP_NANOS);
+                yield null;
+            }
+            case "isOpen" -> true;
+            case "getChannelNumber" -> 1;
+            default -> defaultValue(m.getReturnType());
+        });
+        var connection = proxy(Connection.class, (p, m, a) -> switch (m.getName()) {
+            case "createChannel" -> channel;
+            case "isOpen" -> true;
+            default -> defaultValue(m.getReturnType());
+        });
+        return proxy(ConnectionFactory.class, (p, m, a) -> switch (m.getName()) {
+            case "createConnection" -> connection;
+            case "getHost" -> "localhost";
+            case "getVirtualHost" -> "/";
+            case "getUsername" -> "guest";
+            default -> defaultValue(m.getReturnType());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
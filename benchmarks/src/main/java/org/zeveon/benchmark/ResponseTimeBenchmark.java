@@ -0,0 +1,59 @@
+package org.zeveon.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.zeveon.util.LatencyHistogram;
+import org.zeveon.util.ResponseTimeAccumulator;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Stanislav Vafin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseTimeBenchmark {
+
+    private static final long MAX_RESPONSE_TIME_MICROS = 10_000_000;
+
+    private ResponseTimeAccumulator accumulator;
+
+    private LatencyHistogram histogram;
+
+    @Setup
+    public void setUp() {
+        accumulator = new ResponseTimeAccumulator();
+        histogram = new LatencyHistogram();
+        for (int i = 0; i < 100_000; i++) {
+            var value = ThreadLocalRandom.current().nextLong(MAX_RESPONSE_TIME_MICROS);
+            accumulator.add(Duration.ofNanos(value * 1000));
+            histogram.add(value);
+        }
+    }
+
+    @Benchmark
+    public Duration addAndGetMean() {
+        accumulator.add(Duration.ofMillis(ThreadLocalRandom.current().nextLong(10_000)));
+        return accumulator.getMean();
+    }
+
+    @Benchmark
+    public Duration getPercentile() {
+        return accumulator.getPercentile(0.99);
+    }
+
+    @Benchmark
+    public void histogramAdd() {
+        histogram.add(ThreadLocalRandom.current().nextLong(MAX_RESPONSE_TIME_MICROS));
+    }
+
+    @Benchmark
+    public long histogramQuantile() {
+        return histogram.getValueAtQuantile(0.95);
+    }
+}
@@ -0,0 +1,132 @@
+package org.zeveon.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.zeveon.component.HealthCheckMetrics;
+import org.zeveon.component.UpdateDispatcher;
+import org.zeveon.controller.UpdateController;
+import org.zeveon.controller.WebhookController;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.zeveon.benchmark.BenchmarkUtil.setField;
+
+/**
+ * Replays recorded webhook payloads through {@link WebhookController} and {@link UpdateDispatcher}.
+ * Command handling is replaced by a fixed amount of CPU work, so the score is the update throughput of the webhook path.
+ *
+ * @author Stanislav Vafin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookReplayBenchmark {
+
+    private static final String PAYLOADS = "/webhook-updates.ndjson";
+
+    private static final int REPLAYED_UPDATES = 64;
+
+    private static final long PARK_NANOS = 1000;
+
+    @Param({"0", "10000"})
+    private long commandTokens;
+
+    @Param({"8"})
+    private int threads;
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ObjectReader updateReader;
+
+    private ExecutorService updateExecutor;
+
+    private WebhookController webhookController;
+
+    private List<byte[]> payloads;
+
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(
+                Objects.requireNonNull(getClass().getResourceAsStream(PAYLOADS)), StandardCharsets.UTF_8))) {
+            payloads = reader.lines()
+                    .filter(l -> !l.isBlank())
+                    .map(l -> l.getBytes(StandardCharsets.UTF_8))
+                    .toList();
+        }
+        updateReader = objectMapper.readerFor(Update.class);
+        updateExecutor = Executors.newFixedThreadPool(threads);
+        var updateDispatcher = new UpdateDispatcher(new ReplayedUpdateController(), updateExecutor,
+                new HealthCheckMetrics(new SimpleMeterRegistry()));
+        setField(updateDispatcher, "capacity", Integer.MAX_VALUE);
+        setField(updateDispatcher, "chatCapacity", Integer.MAX_VALUE);
+        webhookController = new WebhookController(objectMapper, updateDispatcher);
+        setField(webhookController, "secretToken", "");
+    }
+
+    @TearDown
+    public void tearDown() {
+        updateExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REPLAYED_UPDATES)
+    public void replay() throws IOException {
+        var target = processed.get() + REPLAYED_UPDATES;
+        for (int i = 0; i < REPLAYED_UPDATES; i++) {
+            webhookController.onUpdateReceived(null, new ByteArrayInputStream(nextPayload()));
+        }
+        while (processed.get() < target) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    @Benchmark
+    public Update parseStreaming() throws IOException {
+        return updateReader.readValue(nextPayload());
+    }
+
+    @Benchmark
+    public Update parseTree() throws IOException {
+        return objectMapper.treeToValue(objectMapper.readTree(nextPayload()), Update.class);
+    }
+
+    private byte[] nextPayload() {
+        next = (next + 1) % payloads.size();
+        return payloads.get(next);
+    }
+
+    private class ReplayedUpdateController extends UpdateController {
+
+        private ReplayedUpdateController() {
+            super(null, null, null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public void processUpdate(Update update) {
+            Blackhole.consumeCPU(commandTokens);
+            processed.incrementAndGet();
+        }
+    }
+}
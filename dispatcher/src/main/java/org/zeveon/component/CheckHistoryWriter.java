@@ -0,0 +1,119 @@
+package org.zeveon.component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.zeveon.model.CheckHistoryRecord;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only buffer for check results, flushed into the day-partitioned check history as batched inserts.
+ *
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CheckHistoryWriter {
+
+    private static final String INSERT_CHECK_HISTORY = """
+            INSERT INTO health.check_history (host_id, method, checked_at, latency_micros, status)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final HealthCheckMetrics healthCheckMetrics;
+
+    private final Queue<CheckHistoryRecord> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    @Value("${health-check.history.enabled}")
+    private boolean enabled;
+
+    @Value("${health-check.history.batch-size}")
+    private Integer batchSize;
+
+    @Value("${health-check.history.capacity}")
+    private Integer capacity;
+
+    public void write(CheckHistoryRecord checkHistoryRecord) {
+        if (!enabled) {
+            return;
+        }
+        pending.add(checkHistoryRecord);
+        var currentSize = size.incrementAndGet();
+        if (currentSize > capacity && pending.poll() != null) {
+            size.decrementAndGet();
+            healthCheckMetrics.recordHistoryDropped();
+        }
+        if (currentSize >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${health-check.history.flush-interval}")
+    public synchronized void flush() {
+        var records = new ArrayList<CheckHistoryRecord>();
+        CheckHistoryRecord checkHistoryRecord;
+        while ((checkHistoryRecord = pending.poll()) != null) {
+            size.decrementAndGet();
+            records.add(checkHistoryRecord);
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        var startTime = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_CHECK_HISTORY, records, batchSize, this::setValues);
+            healthCheckMetrics.recordHistoryFlush(Duration.ofNanos(System.nanoTime() - startTime), records.size());
+        } catch (DataAccessException e) {
+            log.error(e.getMessage());
+            records.stream()
+                    .limit(Math.max(capacity - size.get(), 0))
+                    .forEach(r -> {
+                        pending.add(r);
+                        size.incrementAndGet();
+                    });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private void setValues(PreparedStatement ps, CheckHistoryRecord checkHistoryRecord) throws SQLException {
+        ps.setLong(1, checkHistoryRecord.getHostId());
+        ps.setShort(2, (short) checkHistoryRecord.getMethod().getCode());
+        ps.setObject(3, checkHistoryRecord.getCheckedAt().atOffset(ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setInt(4, checkHistoryRecord.getLatencyMicros());
+        ps.setShort(5, (short) checkHistoryRecord.getStatus());
+    }
+}
@@ -0,0 +1,82 @@
+package org.zeveon.component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.zeveon.config.RabbitConfig;
+import org.zeveon.event.ChatSettingsChangedEvent;
+import org.zeveon.event.HostsChangedEvent;
+import org.zeveon.event.SubscriptionChangedEvent;
+import org.zeveon.event.UsersChangedEvent;
+import org.zeveon.model.ClusterChange;
+
+import java.util.List;
+
+import static org.zeveon.model.ClusterChange.Type.*;
+
+/**
+ * Publishes committed local changes to the cluster fanout exchange, so other nodes apply them to their
+ * host registry, subscriptions, schedule and caches.
+ * Uses its own plain template, so changes are neither batched nor counted as probe publishes.
+ *
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterBroadcaster {
+
+    public static final String NODE_ID = "x-node-id";
+
+    private final ClusterMembership clusterMembership;
+
+    private final RabbitConfig rabbitConfig;
+
+    private final ConnectionFactory connectionFactory;
+
+    private RabbitTemplate rabbitTemplate;
+
+    @PostConstruct
+    public void init() {
+        rabbitTemplate = new RabbitTemplate(connectionFactory);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void broadcast(HostsChangedEvent event) {
+        broadcast(new ClusterChange(HOSTS, List.copyOf(event.getHostIds())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void broadcast(SubscriptionChangedEvent event) {
+        broadcast(new ClusterChange(SUBSCRIPTIONS, List.copyOf(event.getHostIds())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void broadcast(ChatSettingsChangedEvent event) {
+        broadcast(new ClusterChange(CHAT_SETTINGS, List.of(event.getChatId())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void broadcast(UsersChangedEvent event) {
+        broadcast(new ClusterChange(USERS, List.copyOf(event.getUserIds())));
+    }
+
+    private void broadcast(ClusterChange change) {
+        if (!clusterMembership.isEnabled() || change.getIds().isEmpty()) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(rabbitConfig.getClusterExchange(), "", change.toPayload(), message -> {
+                message.getMessageProperties().setHeader(NODE_ID, clusterMembership.getNodeId());
+                return message;
+            });
+        } catch (AmqpException e) {
+            log.error(e.getMessage());
+        }
+    }
+}
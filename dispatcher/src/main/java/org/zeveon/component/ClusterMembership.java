@@ -0,0 +1,133 @@
+package org.zeveon.component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.zeveon.data.HashRing;
+import org.zeveon.event.ClusterChangedEvent;
+import org.zeveon.model.HostCheckRate;
+import org.zeveon.repository.ClusterNodeRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.core.Ordered.HIGHEST_PRECEDENCE;
+
+/**
+ * Registers this node in the cluster heartbeat table and decides which hosts it owns.
+ * Hosts are split between alive nodes by a consistent hash of the host id, so only the owner schedules a host.
+ * Without cluster mode the node owns every host.
+ *
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterMembership {
+
+    private final ClusterNodeRepository clusterNodeRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Getter
+    @Value("${cluster.enabled}")
+    private boolean enabled;
+
+    @Value("${cluster.node-id}")
+    private String configuredNodeId;
+
+    @Value("${cluster.node-timeout}")
+    private Duration nodeTimeout;
+
+    @Value("${cluster.virtual-nodes}")
+    private Integer virtualNodes;
+
+    @Getter
+    private String nodeId;
+
+    private volatile HashRing ring;
+
+    private volatile long heartbeatAt;
+
+    @PostConstruct
+    public void init() {
+        nodeId = configuredNodeId.isEmpty() ? UUID.randomUUID().toString() : configuredNodeId;
+        ring = new HashRing(List.of(nodeId), virtualNodes);
+        heartbeatAt = System.nanoTime();
+    }
+
+    /**
+     * Runs before other startup listeners, so the initial schedule is built from the actual membership
+     */
+    @Order(HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            clusterNodeRepository.saveHeartbeat(nodeId);
+            heartbeatAt = System.nanoTime();
+            clusterNodeRepository.deleteNodesExpiredFor(nodeTimeout);
+            var nodeIds = clusterNodeRepository.findAliveNodeIds(nodeTimeout);
+            if (!new HashSet<>(nodeIds).equals(new HashSet<>(ring.getNodeIds()))) {
+                ring = new HashRing(nodeIds, virtualNodes);
+                log.info("Cluster membership changed, node {} of {}", nodeId, ring.getNodeIds());
+                eventPublisher.publishEvent(new ClusterChangedEvent(ring.getNodeIds()));
+            }
+        } catch (DataAccessException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * A node that could not renew its heartbeat within the node timeout is considered gone by the others,
+     * so it stops owning hosts until the next successful heartbeat
+     */
+    public boolean isOwner(Long hostId) {
+        return !enabled || isAlive() && ring.getOwner(hostId).map(nodeId::equals).orElse(false);
+    }
+
+    public List<HostCheckRate> filterOwned(Collection<HostCheckRate> checkRates) {
+        return checkRates.stream()
+                .filter(c -> isOwner(c.getHostId()))
+                .toList();
+    }
+
+    /**
+     * Cluster-wide maintenance runs on the alive node with the smallest id
+     */
+    public boolean isLeader() {
+        return !enabled || isAlive() && nodeId.equals(ring.getNodeIds().get(0));
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            clusterNodeRepository.deleteNode(nodeId);
+        } catch (DataAccessException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    private boolean isAlive() {
+        return System.nanoTime() - heartbeatAt < nodeTimeout.toNanos();
+    }
+}
@@ -0,0 +1,211 @@
+package org.zeveon.component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.zeveon.model.CurlMode;
+import org.zeveon.util.CurlRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Optional.empty;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.zeveon.model.Protocol.HTTP;
+import static org.zeveon.util.Functions.onCancel;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CurlClient {
+
+    private static final int MAX_REDIRECTS = 50;
+    private static final String SCHEME_SEPARATOR = "://";
+    private static final String LOCATION = "Location";
+    private static final String HEAD = "HEAD";
+    private static final String GET = "GET";
+
+    private final ExecutorService javaHttpClientExecutor;
+
+    private final Map<Integer, HttpClient> httpClients = new ConcurrentHashMap<>();
+
+    private ExecutorService processExecutor;
+
+    @Value("${health-check.curl.mode}")
+    private CurlMode mode;
+
+    @Value("${health-check.curl.max-time}")
+    private Integer maxTime;
+
+    @Value("${health-check.curl.max-processes}")
+    private Integer maxProcesses;
+
+    public CompletableFuture<Integer> execute(CurlRequest request) {
+        return switch (mode) {
+            case NATIVE -> executeNative(request);
+            case PROCESS -> executeProcess(request);
+        };
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (processExecutor != null) {
+            processExecutor.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<Integer> executeNative(CurlRequest request) {
+        var httpClient = httpClients.computeIfAbsent(
+                Optional.ofNullable(request.getConnectTimeout()).orElse(0),
+                this::buildHttpClient);
+        try {
+            var uri = Optional.ofNullable(request.getUri())
+                    .orElseGet(() -> URI.create(withScheme(request.getUrl())));
+            var exchange = new AtomicReference<CompletableFuture<?>>();
+            return onCancel(follow(httpClient, request, uri, 0, 0, exchange), () -> exchange.get().cancel(true));
+        } catch (IllegalArgumentException e) {
+            log.debug(e.getMessage());
+            return completedFuture(0);
+        }
+    }
+
+    /**
+     * The exchange in flight is kept in {@code exchange}, so cancelling the returned future aborts the current request
+     */
+    private CompletableFuture<Integer> follow(
+            HttpClient httpClient,
+            CurlRequest request,
+            URI uri,
+            int redirects,
+            int lastStatus,
+            AtomicReference<CompletableFuture<?>> exchange
+    ) {
+        var response = httpClient.sendAsync(buildHttpRequest(request, uri), HttpResponse.BodyHandlers.discarding());
+        exchange.set(response);
+        return response
+                .thenCompose(r -> {
+                    var statusCode = r.statusCode();
+                    return request.isLocation() && isRedirect(statusCode) && redirects < MAX_REDIRECTS
+                            ? resolveLocation(uri, r)
+                                    .map(next -> follow(httpClient, request, next, redirects + 1, statusCode, exchange))
+                                    .orElse(completedFuture(statusCode))
+                            : completedFuture(statusCode);
+                })
+                .exceptionally(e -> {
+                    log.debug(e.getMessage());
+                    return lastStatus;
+                });
+    }
+
+    private HttpRequest buildHttpRequest(CurlRequest request, URI uri) {
+        var builder = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(Optional.ofNullable(request.getMaxTime()).orElse(maxTime)))
+                .method(request.isHead() ? HEAD : GET, HttpRequest.BodyPublishers.noBody());
+        request.getHeaders().forEach(builder::header);
+        return builder.build();
+    }
+
+    private HttpClient buildHttpClient(Integer connectTimeout) {
+        var builder = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(javaHttpClientExecutor);
+        if (connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofSeconds(connectTimeout));
+        }
+        return builder.build();
+    }
+
+    private Optional<URI> resolveLocation(URI uri, HttpResponse<?> response) {
+        try {
+            return response.headers().firstValue(LOCATION).map(uri::resolve);
+        } catch (IllegalArgumentException e) {
+            log.debug(e.getMessage());
+            return empty();
+        }
+    }
+
+    private boolean isRedirect(int statusCode) {
+        return statusCode >= 300 && statusCode < 400;
+    }
+
+    private String withScheme(String url) {
+        return url.contains(SCHEME_SEPARATOR)
+                ? url
+                : HTTP.name().toLowerCase() + SCHEME_SEPARATOR + url;
+    }
+
+    private CompletableFuture<Integer> executeProcess(CurlRequest request) {
+        var process = new AtomicReference<Process>();
+        var cancelled = new AtomicBoolean();
+        return onCancel(CompletableFuture.supplyAsync(() -> runProcess(request, process, cancelled), getProcessExecutor())
+                .exceptionally(e -> {
+                    log.debug(e.getMessage());
+                    return 0;
+                }), () -> {
+            cancelled.set(true);
+            Optional.ofNullable(process.get()).ifPresent(Process::destroyForcibly);
+        });
+    }
+
+    private synchronized ExecutorService getProcessExecutor() {
+        if (processExecutor == null) {
+            processExecutor = Executors.newFixedThreadPool(maxProcesses);
+        }
+        return processExecutor;
+    }
+
+    private int runProcess(CurlRequest request, AtomicReference<Process> running, AtomicBoolean cancelled) {
+        if (cancelled.get()) {
+            return 0;
+        }
+        var deadline = Optional.ofNullable(request.getMaxTime()).orElse(maxTime) + 1;
+        try {
+            var process = new ProcessBuilder(request.getArguments())
+                    .redirectErrorStream(true)
+                    .start();
+            running.set(process);
+            if (cancelled.get()) {
+                process.destroyForcibly();
+            }
+            var reaper = process.onExit()
+                    .orTimeout(deadline, TimeUnit.SECONDS)
+                    .exceptionally(e -> process.destroyForcibly());
+            try {
+                return readStatusCode(process);
+            } finally {
+                reaper.cancel(false);
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            log.debug(e.getMessage());
+            return 0;
+        }
+    }
+
+    private int readStatusCode(Process process) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            var statusCode = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                statusCode = CurlRequest.parseStatusCode(line).orElse(statusCode);
+            }
+            return statusCode;
+        }
+    }
+}
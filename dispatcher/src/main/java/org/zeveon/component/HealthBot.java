@@ -29,6 +29,8 @@ public class HealthBot extends TelegramLongPollingBot {
 
     private final UpdateController updateController;
 
+    private final UpdateDispatcher updateDispatcher;
+
     @PostConstruct
     public void init() {
         updateController.registerBot(this);
@@ -36,7 +38,7 @@ public class HealthBot extends TelegramLongPollingBot {
 
     @Override
     public void onUpdateReceived(Update update) {
-        updateController.processUpdate(update);
+        updateDispatcher.dispatch(update);
     }
 
     @Override
@@ -0,0 +1,223 @@
+package org.zeveon.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.zeveon.model.ConnectionType;
+import org.zeveon.model.Method;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+import static java.util.Arrays.stream;
+
+/**
+ * Meters are registered once and recorded against cached instances, so the probe path does no registry lookups.
+ * Meters tagged with free-form strings are cached on first use.
+ *
+ * @author Stanislav Vafin
+ */
+@Component
+public class HealthCheckMetrics {
+
+    private static final String METHOD = "method";
+    private static final String STATUS = "status";
+    private static final String CONNECTION_TYPE = "connection_type";
+    private static final String OUTCOME = "outcome";
+    private static final String UNREACHABLE = "unreachable";
+    private static final String ACK = "ack";
+    private static final String NACK = "nack";
+    private static final String STATUS_CLASS_TEMPLATE = "%dxx";
+    private static final String COMMAND = "command";
+    private static final String REASON = "reason";
+    private static final int STATUS_CLASSES = 6;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method, Timer> probeTimers = new EnumMap<>(Method.class);
+
+    /**
+     * Outcome counters per method indexed by status class, index 0 counts unreachable hosts
+     */
+    private final Map<Method, Counter[]> outcomeCounters = new EnumMap<>(Method.class);
+
+    private final Map<Method, Map<ConnectionType, Counter>> attemptCounters = new EnumMap<>(Method.class);
+
+    private final Map<String, Timer> notificationTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> updateTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> rejectedUpdateCounters = new ConcurrentHashMap<>();
+
+    private final Timer schedulerTickTimer;
+
+    private final Counter schedulerDispatchedCounter;
+
+    private final Timer queueLagTimer;
+
+    private final Counter publishAckCounter;
+
+    private final Counter publishNackCounter;
+
+    private final DistributionSummary publishBatchSizeSummary;
+
+    private final Timer statisticFlushTimer;
+
+    private final DistributionSummary statisticFlushRowsSummary;
+
+    private final Timer historyFlushTimer;
+
+    private final DistributionSummary historyFlushRowsSummary;
+
+    private final Counter historyDroppedCounter;
+
+    private final Timer updateWaitTimer;
+
+    public HealthCheckMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        stream(Method.values()).forEach(method -> {
+            probeTimers.put(method, Timer.builder("health.check.probe")
+                    .tag(METHOD, method.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            var counters = new Counter[STATUS_CLASSES];
+            for (int statusClass = 0; statusClass < STATUS_CLASSES; statusClass++) {
+                counters[statusClass] = outcomeCounter(method,
+                        statusClass == 0 ? UNREACHABLE : STATUS_CLASS_TEMPLATE.formatted(statusClass));
+            }
+            outcomeCounters.put(method, counters);
+            var connectionTypeCounters = new EnumMap<ConnectionType, Counter>(ConnectionType.class);
+            stream(ConnectionType.values()).forEach(connectionType -> connectionTypeCounters.put(connectionType,
+                    Counter.builder("health.check.attempts")
+                            .tag(METHOD, method.name())
+                            .tag(CONNECTION_TYPE, connectionType.name())
+                            .register(meterRegistry)));
+            attemptCounters.put(method, connectionTypeCounters);
+        });
+        schedulerTickTimer = Timer.builder("health.check.scheduler.tick")
+                .register(meterRegistry);
+        schedulerDispatchedCounter = Counter.builder("health.check.scheduler.dispatched")
+                .register(meterRegistry);
+        queueLagTimer = Timer.builder("health.check.queue.lag")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        publishAckCounter = publishConfirmCounter(ACK);
+        publishNackCounter = publishConfirmCounter(NACK);
+        publishBatchSizeSummary = DistributionSummary.builder("health.check.publish.batch.size")
+                .register(meterRegistry);
+        statisticFlushTimer = Timer.builder("health.check.statistic.flush")
+                .register(meterRegistry);
+        statisticFlushRowsSummary = DistributionSummary.builder("health.check.statistic.flush.rows")
+                .register(meterRegistry);
+        historyFlushTimer = Timer.builder("health.check.history.flush")
+                .register(meterRegistry);
+        historyFlushRowsSummary = DistributionSummary.builder("health.check.history.flush.rows")
+                .register(meterRegistry);
+        historyDroppedCounter = Counter.builder("health.check.history.dropped")
+                .register(meterRegistry);
+        updateWaitTimer = Timer.builder("health.bot.update.wait")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void recordProbe(Method method, Duration duration) {
+        probeTimers.get(method).record(duration);
+    }
+
+    /**
+     * Codes outside of 1xx-5xx are rare, so their counters are looked up in the registry
+     */
+    public void recordOutcome(Method method, int responseCode) {
+        var statusClass = responseCode / 100;
+        if (responseCode == 0) {
+            outcomeCounters.get(method)[0].increment();
+        } else if (statusClass > 0 && statusClass < STATUS_CLASSES) {
+            outcomeCounters.get(method)[statusClass].increment();
+        } else {
+            outcomeCounter(method, STATUS_CLASS_TEMPLATE.formatted(statusClass)).increment();
+        }
+    }
+
+    public void recordAttempt(Method method, ConnectionType connectionType) {
+        attemptCounters.get(method).get(connectionType).increment();
+    }
+
+    public void recordSchedulerTick(Duration duration, int dispatched) {
+        schedulerTickTimer.record(duration);
+        schedulerDispatchedCounter.increment(dispatched);
+    }
+
+    public void recordQueueLag(Duration duration) {
+        queueLagTimer.record(duration);
+    }
+
+    public void recordPublishConfirm(boolean ack, int messages) {
+        (ack ? publishAckCounter : publishNackCounter).increment();
+        publishBatchSizeSummary.record(messages);
+    }
+
+    public void recordStatisticFlush(Duration duration, int rows) {
+        statisticFlushTimer.record(duration);
+        statisticFlushRowsSummary.record(rows);
+    }
+
+    public void recordHistoryFlush(Duration duration, int rows) {
+        historyFlushTimer.record(duration);
+        historyFlushRowsSummary.record(rows);
+    }
+
+    public void recordHistoryDropped() {
+        historyDroppedCounter.increment();
+    }
+
+    public void recordNotification(Duration duration, String outcome) {
+        notificationTimers.computeIfAbsent(outcome, o -> Timer.builder("health.check.notification.send")
+                        .tag(OUTCOME, o)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(duration);
+    }
+
+    public <T> void registerUpdateBacklog(T dispatcher, ToDoubleFunction<T> backlog) {
+        Gauge.builder("health.bot.update.backlog", dispatcher, backlog)
+                .register(meterRegistry);
+    }
+
+    public void recordUpdate(String command, Duration duration) {
+        updateTimers.computeIfAbsent(command, c -> Timer.builder("health.bot.update.processing")
+                        .tag(COMMAND, c)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(duration);
+    }
+
+    public void recordUpdateWait(Duration duration) {
+        updateWaitTimer.record(duration);
+    }
+
+    public void recordUpdateRejected(String reason) {
+        rejectedUpdateCounters.computeIfAbsent(reason, r -> Counter.builder("health.bot.update.rejected")
+                        .tag(REASON, r)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Counter outcomeCounter(Method method, String status) {
+        return Counter.builder("health.check.outcome")
+                .tag(METHOD, method.name())
+                .tag(STATUS, status)
+                .register(meterRegistry);
+    }
+
+    private Counter publishConfirmCounter(String outcome) {
+        return Counter.builder("health.check.publish.confirms")
+                .tag(OUTCOME, outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,248 @@
+package org.zeveon.component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.ResponseParameters;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+import org.zeveon.util.TokenBucket;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Asynchronous outbound queue for chat notifications.
+ * Notifications for the same chat are coalesced within a short window and sent within Telegram rate limits.
+ *
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationSender {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int BAD_REQUEST = 400;
+    private static final int INTERNAL_SERVER_ERROR = 500;
+    private static final int MAX_MESSAGE_LENGTH = 4096;
+    private static final long DISPATCH_INTERVAL_MILLIS = 50;
+    private static final String NEW_LINE = "\n";
+    private static final String SENT = "sent";
+    private static final String FAILED = "failed";
+    private static final String REJECTED = "rejected";
+
+    private final HealthCheckMetrics healthCheckMetrics;
+
+    private final Map<Long, Deque<Notification>> pending = new LinkedHashMap<>();
+
+    private final Map<Long, TokenBucket> chatBuckets = new HashMap<>();
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor();
+
+    private TokenBucket globalBucket;
+
+    private ExecutorService senderExecutor;
+
+    private HealthBot healthBot;
+
+    private int queued;
+
+    @Value("${notification.queue-capacity}")
+    private Integer queueCapacity;
+
+    @Value("${notification.global-rate}")
+    private Double globalRate;
+
+    @Value("${notification.chat-rate}")
+    private Double chatRate;
+
+    @Value("${notification.coalesce-window}")
+    private Duration coalesceWindow;
+
+    @Value("${notification.max-attempts}")
+    private Integer maxAttempts;
+
+    @Value("${notification.retry-backoff}")
+    private Duration retryBackoff;
+
+    @Value("${notification.threads}")
+    private Integer threads;
+
+    @Value("${notification.shutdown-timeout}")
+    private Duration shutdownTimeout;
+
+    @PostConstruct
+    public void init() {
+        globalBucket = new TokenBucket(globalRate, globalRate);
+        senderExecutor = Executors.newFixedThreadPool(threads);
+        dispatcher.scheduleWithFixedDelay(this::dispatch, DISPATCH_INTERVAL_MILLIS, DISPATCH_INTERVAL_MILLIS, MILLISECONDS);
+    }
+
+    public void registerBot(HealthBot healthBot) {
+        this.healthBot = healthBot;
+    }
+
+    public synchronized void send(Long chatId, String text) {
+        var chatNotifications = pending.computeIfAbsent(chatId, id -> new ArrayDeque<>());
+        var last = chatNotifications.peekLast();
+        if (last != null && last.attempts == 0
+                && last.text.length() + NEW_LINE.length() + text.length() <= MAX_MESSAGE_LENGTH) {
+            last.text.append(NEW_LINE).append(text);
+        } else if (queued < queueCapacity) {
+            chatNotifications.addLast(new Notification(chatId, text, Instant.now().plus(coalesceWindow)));
+            queued++;
+        } else {
+            log.warn("Notification queue is full, message for chat {} dropped", chatId);
+        }
+    }
+
+    /**
+     * Notifications still waiting for their coalescing window or a rate limit token are sent right away,
+     * whatever is not delivered within the shutdown timeout is dropped
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(shutdownTimeout.toMillis(), MILLISECONDS);
+        if (healthBot != null) {
+            pollAll().forEach(n -> senderExecutor.execute(() -> deliver(n)));
+        }
+        senderExecutor.shutdown();
+        var dropped = senderExecutor.awaitTermination(shutdownTimeout.toMillis(), MILLISECONDS)
+                ? 0
+                : senderExecutor.shutdownNow().size();
+        dropped += pollAll().size();
+        if (dropped > 0) {
+            log.warn("{} notifications dropped on shutdown", dropped);
+        }
+    }
+
+    private void dispatch() {
+        try {
+            if (healthBot != null) {
+                pollReady().forEach(n -> senderExecutor.execute(() -> deliver(n)));
+            }
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Served chats are moved to the end of the queue, so chats left waiting for the global limit go first on the next pass
+     */
+    private synchronized List<Notification> pollReady() {
+        var now = Instant.now();
+        var ready = new ArrayList<Notification>();
+        var served = new ArrayList<Long>();
+        var iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            var chatNotifications = entry.getValue();
+            var first = chatNotifications.peekFirst();
+            var chatBucket = getChatBucket(entry.getKey());
+            if (first != null && !first.readyAt.isAfter(now) && chatBucket.hasToken()) {
+                if (!globalBucket.tryAcquire()) {
+                    break;
+                }
+                chatBucket.tryAcquire();
+                ready.add(chatNotifications.pollFirst());
+                served.add(entry.getKey());
+                queued--;
+            }
+            if (chatNotifications.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        served.forEach(chatId -> ofNullable(pending.remove(chatId)).ifPresent(n -> pending.put(chatId, n)));
+        chatBuckets.entrySet().removeIf(e -> !pending.containsKey(e.getKey()) && e.getValue().isFull());
+        return ready;
+    }
+
+    private synchronized List<Notification> pollAll() {
+        var all = new ArrayList<Notification>();
+        pending.values().forEach(all::addAll);
+        pending.clear();
+        queued = 0;
+        return all;
+    }
+
+    private TokenBucket getChatBucket(Long chatId) {
+        return chatBuckets.computeIfAbsent(chatId, id -> new TokenBucket(chatRate, 1));
+    }
+
+    private void deliver(Notification notification) {
+        var message = new SendMessage();
+        message.setChatId(notification.chatId);
+        message.setText(notification.text.toString());
+        var startTime = System.nanoTime();
+        try {
+            healthBot.execute(message);
+            healthCheckMetrics.recordNotification(Duration.ofNanos(System.nanoTime() - startTime), SENT);
+        } catch (TelegramApiRequestException e) {
+            if (isPermanent(e)) {
+                healthCheckMetrics.recordNotification(Duration.ofNanos(System.nanoTime() - startTime), REJECTED);
+                log.warn("Notification for chat {} rejected: {}", notification.chatId, e.getMessage());
+                return;
+            }
+            healthCheckMetrics.recordNotification(Duration.ofNanos(System.nanoTime() - startTime), FAILED);
+            var retryAfter = ofNullable(e.getParameters())
+                    .filter(p -> Objects.equals(e.getErrorCode(), TOO_MANY_REQUESTS))
+                    .map(ResponseParameters::getRetryAfter)
+                    .map(Duration::ofSeconds);
+            retry(notification, retryAfter, e);
+        } catch (TelegramApiException e) {
+            healthCheckMetrics.recordNotification(Duration.ofNanos(System.nanoTime() - startTime), FAILED);
+            retry(notification, Optional.empty(), e);
+        }
+    }
+
+    /**
+     * Client errors other than rate limiting, such as a blocked bot or a missing chat, fail the same way on every retry
+     */
+    private boolean isPermanent(TelegramApiRequestException e) {
+        var errorCode = e.getErrorCode();
+        return errorCode != null && errorCode >= BAD_REQUEST && errorCode < INTERNAL_SERVER_ERROR
+                && errorCode != TOO_MANY_REQUESTS;
+    }
+
+    private synchronized void retry(Notification notification, Optional<Duration> retryAfter, Exception e) {
+        if (++notification.attempts >= maxAttempts) {
+            log.error("Notification for chat {} dropped after {} attempts: {}",
+                    notification.chatId, notification.attempts, e.getMessage());
+            return;
+        }
+        notification.readyAt = Instant.now().plus(retryAfter.orElseGet(
+                () -> retryBackoff.multipliedBy(1L << (notification.attempts - 1))));
+        pending.computeIfAbsent(notification.chatId, id -> new ArrayDeque<>()).addFirst(notification);
+        queued++;
+    }
+
+    private static class Notification {
+
+        private final Long chatId;
+
+        private final StringBuilder text;
+
+        private Instant readyAt;
+
+        private int attempts;
+
+        private Notification(Long chatId, String text, Instant readyAt) {
+            this.chatId = chatId;
+            this.text = new StringBuilder(text);
+            this.readyAt = readyAt;
+        }
+    }
+}
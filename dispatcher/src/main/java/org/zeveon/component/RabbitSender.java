@@ -1,22 +1,76 @@
 package org.zeveon.component;
 
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.stereotype.Component;
 import org.zeveon.config.RabbitConfig;
+import org.zeveon.model.ProbeTask;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Probe tasks are sent without correlation data, since {@link org.springframework.amqp.rabbit.core.BatchingRabbitTemplate}
+ * publishes every message that carries it on its own. Correlation is attached to the published AMQP message instead,
+ * so each publisher confirm covers a whole batch.
+ *
  * @author Stanislav Vafin
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class RabbitSender {
 
+    public static final String ENQUEUED_AT = "x-enqueued-at";
+
     private final RabbitConfig rabbitConfig;
 
     private final RabbitTemplate rabbitTemplate;
 
-    public void send(Long hostId) {
-        rabbitTemplate.convertAndSend(rabbitConfig.getQueueName(), hostId);
+    private final HealthCheckMetrics healthCheckMetrics;
+
+    private final AtomicLong publishSequence = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        rabbitTemplate.setCorrelationDataPostProcessor(this::correlate);
+        rabbitTemplate.setConfirmCallback(this::confirm);
+    }
+
+    public void send(ProbeTask probeTask) {
+        rabbitTemplate.convertAndSend(rabbitConfig.getQueueName(), probeTask.toPayload(), message -> {
+            message.getMessageProperties().setHeader(ENQUEUED_AT, System.currentTimeMillis());
+            return message;
+        });
+    }
+
+    private CorrelationData correlate(Message message, CorrelationData correlationData) {
+        var size = message.getMessageProperties().getHeaders().get(AmqpHeaders.BATCH_SIZE);
+        return new PublishCorrelation(publishSequence.incrementAndGet(), size instanceof Integer i ? i : 1);
+    }
+
+    private void confirm(CorrelationData correlationData, boolean ack, String cause) {
+        var size = correlationData instanceof PublishCorrelation c ? c.getSize() : 1;
+        healthCheckMetrics.recordPublishConfirm(ack, size);
+        if (!ack) {
+            log.error("Publish {} of {} probe tasks was not confirmed by broker: {}",
+                    correlationData != null ? correlationData.getId() : null, size, cause);
+        }
+    }
+
+    @Getter
+    private static class PublishCorrelation extends CorrelationData {
+
+        private final int size;
+
+        private PublishCorrelation(long sequence, int size) {
+            super(String.valueOf(sequence));
+            this.size = size;
+        }
     }
 }
@@ -0,0 +1,137 @@
+package org.zeveon.component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.zeveon.model.Method;
+import org.zeveon.model.StatisticRecord;
+
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Write-behind buffer for statistic rows, coalesced by host and method and flushed as batched upserts.
+ * Coalescing bounds the buffer by the number of hosts times methods, so it needs no separate capacity limit.
+ *
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StatisticWriter {
+
+    private static final String UPSERT_STATISTIC = """
+            INSERT INTO health.statistic (host_id, method, response_time, response_time_p50, response_time_p95,
+                                          response_time_p99, response_time_ewma, response_time_min,
+                                          response_time_max, response_code, need_appender, preferred_protocol,
+                                          modified_date)
+            SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?
+            WHERE EXISTS (SELECT 1 FROM health.host WHERE id = ?)
+            ON CONFLICT (method, host_id) DO UPDATE SET
+                response_time = excluded.response_time,
+                response_time_p50 = excluded.response_time_p50,
+                response_time_p95 = excluded.response_time_p95,
+                response_time_p99 = excluded.response_time_p99,
+                response_time_ewma = excluded.response_time_ewma,
+                response_time_min = excluded.response_time_min,
+                response_time_max = excluded.response_time_max,
+                response_code = excluded.response_code,
+                need_appender = COALESCE(excluded.need_appender, statistic.need_appender),
+                preferred_protocol = COALESCE(excluded.preferred_protocol, statistic.preferred_protocol),
+                modified_date = excluded.modified_date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final HealthCheckMetrics healthCheckMetrics;
+
+    private final Map<Key, StatisticRecord> pending = new ConcurrentHashMap<>();
+
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    @Value("${health-check.write-behind.batch-size}")
+    private Integer batchSize;
+
+    public void write(StatisticRecord statisticRecord) {
+        pending.put(new Key(statisticRecord.getHostId(), statisticRecord.getMethod()), statisticRecord);
+        if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${health-check.write-behind.flush-interval}")
+    public synchronized void flush() {
+        var records = new ArrayList<StatisticRecord>(pending.size());
+        pending.keySet().forEach(key -> ofNullable(pending.remove(key)).ifPresent(records::add));
+        if (records.isEmpty()) {
+            return;
+        }
+        var startTime = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_STATISTIC, records, batchSize, this::setValues);
+            healthCheckMetrics.recordStatisticFlush(Duration.ofNanos(System.nanoTime() - startTime), records.size());
+        } catch (DataAccessException e) {
+            log.error(e.getMessage());
+            records.forEach(r -> pending.putIfAbsent(new Key(r.getHostId(), r.getMethod()), r));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private void setValues(PreparedStatement ps, StatisticRecord statisticRecord) throws SQLException {
+        ps.setLong(1, statisticRecord.getHostId());
+        ps.setString(2, statisticRecord.getMethod().name());
+        ps.setObject(3, toNanos(statisticRecord.getResponseTime()), Types.NUMERIC);
+        ps.setObject(4, toNanos(statisticRecord.getResponseTimeP50()), Types.NUMERIC);
+        ps.setObject(5, toNanos(statisticRecord.getResponseTimeP95()), Types.NUMERIC);
+        ps.setObject(6, toNanos(statisticRecord.getResponseTimeP99()), Types.NUMERIC);
+        ps.setObject(7, toNanos(statisticRecord.getResponseTimeEwma()), Types.NUMERIC);
+        ps.setObject(8, toNanos(statisticRecord.getResponseTimeMin()), Types.NUMERIC);
+        ps.setObject(9, toNanos(statisticRecord.getResponseTimeMax()), Types.NUMERIC);
+        ps.setInt(10, statisticRecord.getResponseCode());
+        ps.setObject(11, statisticRecord.getNeedAppender(), Types.BOOLEAN);
+        ps.setObject(12, ofNullable(statisticRecord.getPreferredProtocol()).map(Enum::name).orElse(null), Types.VARCHAR);
+        ps.setObject(13, statisticRecord.getModifiedDate().toOffsetDateTime(), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setLong(14, statisticRecord.getHostId());
+    }
+
+    private BigInteger toNanos(Duration duration) {
+        return ofNullable(duration)
+                .map(Duration::toNanos)
+                .map(BigInteger::valueOf)
+                .orElse(null);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final Long hostId;
+        private final Method method;
+    }
+}
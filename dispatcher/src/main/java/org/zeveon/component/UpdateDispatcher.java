@@ -0,0 +1,166 @@
+package org.zeveon.component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.zeveon.controller.UpdateController;
+import org.zeveon.model.Command;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.Optional.ofNullable;
+import static org.zeveon.util.StringUtil.AT_SIGN;
+import static org.zeveon.util.StringUtil.WHITESPACE_CHARACTER;
+
+/**
+ * Hands incoming updates over to a worker pool.
+ * Updates of the same chat are processed one at a time and in order of arrival, different chats run in parallel.
+ *
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpdateDispatcher {
+
+    private static final Long UNKNOWN_CHAT = 0L;
+    private static final String OTHER = "other";
+    private static final String BACKLOG_FULL = "backlog_full";
+    private static final String CHAT_BACKLOG_FULL = "chat_backlog_full";
+    private static final String SHUTDOWN = "shutdown";
+
+    private final UpdateController updateController;
+
+    private final ExecutorService updateExecutor;
+
+    private final HealthCheckMetrics healthCheckMetrics;
+
+    private final Map<Long, Deque<PendingUpdate>> chats = new HashMap<>();
+
+    private int backlog;
+
+    @Value("${bot.updates.capacity}")
+    private Integer capacity;
+
+    @Value("${bot.updates.chat-capacity}")
+    private Integer chatCapacity;
+
+    @PostConstruct
+    public void init() {
+        healthCheckMetrics.registerUpdateBacklog(this, UpdateDispatcher::getBacklog);
+    }
+
+    public void dispatch(Update update) {
+        var chatId = getChatId(update);
+        synchronized (this) {
+            if (backlog >= capacity) {
+                reject(update, BACKLOG_FULL);
+                return;
+            }
+            var queue = chats.get(chatId);
+            if (queue != null && queue.size() >= chatCapacity) {
+                reject(update, CHAT_BACKLOG_FULL);
+                return;
+            }
+            backlog++;
+            if (queue != null) {
+                queue.addLast(new PendingUpdate(update, System.nanoTime()));
+                return;
+            }
+            queue = new ArrayDeque<>();
+            queue.addLast(new PendingUpdate(update, System.nanoTime()));
+            chats.put(chatId, queue);
+        }
+        schedule(chatId);
+    }
+
+    public synchronized int getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * The queue of a chat stays in the map while its head is being processed, which keeps later updates behind it
+     */
+    private void schedule(Long chatId) {
+        try {
+            updateExecutor.execute(() -> drain(chatId));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                ofNullable(chats.remove(chatId)).ifPresent(q -> {
+                    backlog -= q.size();
+                    q.forEach(p -> reject(p.update, SHUTDOWN));
+                });
+            }
+        }
+    }
+
+    private void drain(Long chatId) {
+        PendingUpdate pending;
+        synchronized (this) {
+            pending = chats.get(chatId).peekFirst();
+        }
+        var start = System.nanoTime();
+        healthCheckMetrics.recordUpdateWait(Duration.ofNanos(start - pending.receivedAt));
+        try {
+            updateController.processUpdate(pending.update);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage(), e);
+        } finally {
+            healthCheckMetrics.recordUpdate(getCommand(pending.update), Duration.ofNanos(System.nanoTime() - start));
+        }
+        boolean hasNext;
+        synchronized (this) {
+            var queue = chats.get(chatId);
+            queue.pollFirst();
+            backlog--;
+            hasNext = !queue.isEmpty();
+            if (!hasNext) {
+                chats.remove(chatId);
+            }
+        }
+        if (hasNext) {
+            schedule(chatId);
+        }
+    }
+
+    private void reject(Update update, String reason) {
+        log.warn("Update {} of chat {} is dropped: {}", update.getUpdateId(), getChatId(update), reason);
+        healthCheckMetrics.recordUpdateRejected(reason);
+    }
+
+    private Long getChatId(Update update) {
+        return ofNullable(update.getMessage())
+                .map(Message::getChatId)
+                .orElse(UNKNOWN_CHAT);
+    }
+
+    private String getCommand(Update update) {
+        return ofNullable(update.getMessage())
+                .map(Message::getText)
+                .map(t -> t.split(WHITESPACE_CHARACTER)[0].split(AT_SIGN)[0])
+                .filter(c -> c.equals(Command.HELP) || Command.LIST.containsKey(c))
+                .orElse(OTHER);
+    }
+
+    private static class PendingUpdate {
+
+        private final Update update;
+
+        private final long receivedAt;
+
+        private PendingUpdate(Update update, long receivedAt) {
+            this.update = update;
+            this.receivedAt = receivedAt;
+        }
+    }
+}
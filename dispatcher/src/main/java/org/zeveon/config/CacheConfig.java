@@ -0,0 +1,31 @@
+package org.zeveon.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zeveon.cache.Cache;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Configuration
+public class CacheConfig {
+
+    @Value("${cache.hosts}")
+    private String hostsSpec;
+
+    @Value("${cache.users}")
+    private String usersSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        var cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(Cache.HOSTS, Caffeine.from(hostsSpec).build());
+        cacheManager.registerCustomCache(Cache.USERS, Caffeine.from(usersSpec).build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,74 @@
+package org.zeveon.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final String HEALTH_CHECK_THREAD_PREFIX = "health-check-";
+
+    @Value("${health-check.threads}")
+    private Integer healthCheckThreads;
+
+    @Value("${health-check.queue-capacity}")
+    private Integer healthCheckQueueCapacity;
+
+    @Value("${health-check.max-concurrent-checks}")
+    private Integer maxConcurrentChecks;
+
+    @Value("${bot.updates.threads}")
+    private Integer updateThreads;
+
+    @Value("${statistic.export.threads}")
+    private Integer statisticThreads;
+
+    @Value("${statistic.export.queue-capacity}")
+    private Integer statisticQueueCapacity;
+
+    /**
+     * Blocking Apache checks occupy a pool thread for the whole request, so the pool is sized like the connection pool.
+     * A full queue rejects new checks instead of growing without bound
+     */
+    @Bean
+    public ThreadPoolTaskExecutor healthCheckExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(healthCheckThreads);
+        executor.setMaxPoolSize(healthCheckThreads);
+        executor.setQueueCapacity(healthCheckQueueCapacity);
+        executor.setThreadNamePrefix(HEALTH_CHECK_THREAD_PREFIX);
+        return executor;
+    }
+
+    @Bean
+    public Semaphore healthCheckPermits() {
+        return new Semaphore(maxConcurrentChecks);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService updateExecutor() {
+        return Executors.newFixedThreadPool(updateThreads);
+    }
+
+    /**
+     * Reports are generated off the update thread; a full queue rejects new reports instead of piling them up
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService statisticExecutor() {
+        return new ThreadPoolExecutor(statisticThreads, statisticThreads, 0L, MILLISECONDS,
+                new ArrayBlockingQueue<>(statisticQueueCapacity));
+    }
+}
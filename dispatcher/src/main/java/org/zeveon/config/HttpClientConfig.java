@@ -0,0 +1,91 @@
+package org.zeveon.config;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final int MILLIS_IN_SECOND = 1000;
+
+    @Value("${bot.name}")
+    private String botUsername;
+
+    @Value("${health-check.connection-timeout}")
+    private Integer connectionTimeout;
+
+    @Value("${health-check.apache.socket-timeout}")
+    private Duration socketTimeout;
+
+    @Value("${health-check.apache.max-total}")
+    private Integer maxTotal;
+
+    @Value("${health-check.apache.max-per-route}")
+    private Integer maxPerRoute;
+
+    @Value("${health-check.apache.keep-alive}")
+    private Duration keepAlive;
+
+    @Value("${health-check.apache.idle-timeout}")
+    private Duration idleTimeout;
+
+    @Value("${health-check.java.threads}")
+    private Integer javaThreads;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager apacheConnectionManager() {
+        var connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient apacheHttpClient(PoolingHttpClientConnectionManager apacheConnectionManager) {
+        return HttpClientBuilder.create()
+                .setConnectionManager(apacheConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectionTimeout * MILLIS_IN_SECOND)
+                        .setConnectionRequestTimeout(connectionTimeout * MILLIS_IN_SECOND)
+                        .setSocketTimeout((int) socketTimeout.toMillis())
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    var duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return duration > 0 ? Math.min(duration, keepAlive.toMillis()) : keepAlive.toMillis();
+                })
+                .setUserAgent(botUsername)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout.toMillis(), MILLISECONDS)
+                .build();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService javaHttpClientExecutor() {
+        return Executors.newFixedThreadPool(javaThreads);
+    }
+
+    @Bean
+    public HttpClient javaHttpClient(ExecutorService javaHttpClientExecutor) {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(connectionTimeout))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(javaHttpClientExecutor)
+                .build();
+    }
+}
@@ -1,47 +1,130 @@
 package org.zeveon.config;
 
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.scheduling.TaskScheduler;
+import org.zeveon.component.ClusterMembership;
+
+import java.time.Duration;
+
+import static org.springframework.amqp.rabbit.connection.CachingConnectionFactory.ConfirmType.CORRELATED;
+import static org.zeveon.util.StringUtil.DOT;
 
 /**
  * @author Stanislav Vafin
  */
 @Configuration
+@RequiredArgsConstructor
 @PropertySource("classpath:hidden.properties")
 public class RabbitConfig {
 
+    private final ClusterMembership clusterMembership;
+
     @Value("${rabbitmq.username}")
     private String username;
 
     @Value("${rabbitmq.password}")
     private String password;
 
-    @Getter
     @Value("${rabbitmq.queue}")
     private String queueName;
 
+    @Value("${rabbitmq.batch.enabled}")
+    private boolean batchEnabled;
+
+    @Value("${rabbitmq.batch.size}")
+    private Integer batchSize;
+
+    @Value("${rabbitmq.batch.buffer-limit}")
+    private Integer batchBufferLimit;
+
+    @Value("${rabbitmq.batch.linger}")
+    private Duration batchLinger;
+
+    @Getter
+    @Value("${rabbitmq.cluster-exchange}")
+    private String clusterExchange;
+
+    @Value("${cluster.queue-expiry}")
+    private Duration clusterQueueExpiry;
+
+    /**
+     * In cluster mode every node consumes its own queue, since only the owner node tracks a host's in-flight checks
+     */
+    public String getQueueName() {
+        return clusterMembership.isEnabled() ? queueName + DOT + clusterMembership.getNodeId() : queueName;
+    }
+
+    public String getClusterQueueName() {
+        return clusterExchange + DOT + clusterMembership.getNodeId();
+    }
+
     @Bean
     public ConnectionFactory connectionFactory() {
         var connectionFactory = new CachingConnectionFactory();
         connectionFactory.setUsername(username);
         connectionFactory.setPassword(password);
+        connectionFactory.setPublisherConfirmType(CORRELATED);
         return connectionFactory;
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
-        return new RabbitTemplate(connectionFactory);
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, TaskScheduler taskScheduler) {
+        return batchEnabled
+                ? new BatchingRabbitTemplate(connectionFactory,
+                new SimpleBatchingStrategy(batchSize, batchBufferLimit, batchLinger.toMillis()),
+                taskScheduler)
+                : new RabbitTemplate(connectionFactory);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory
+    ) {
+        var factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        return factory;
     }
 
+    /**
+     * A node queue is durable, so the probes in it survive a restart of a node with a fixed node id.
+     * The queue of a node that does not come back expires, its hosts are scheduled again by their new owners
+     */
     @Bean
     public Queue queue() {
-        return new Queue(queueName, false, false, true);
+        return clusterMembership.isEnabled()
+                ? QueueBuilder.durable(getQueueName()).expires((int) clusterQueueExpiry.toMillis()).build()
+                : new Queue(getQueueName(), false, false, true);
+    }
+
+    /**
+     * Every node binds its own queue to the fanout exchange to receive changes made through the other nodes
+     */
+    @Bean
+    public Declarables clusterDeclarables() {
+        if (!clusterMembership.isEnabled()) {
+            return new Declarables();
+        }
+        var exchange = new FanoutExchange(clusterExchange);
+        var queue = new Queue(getClusterQueueName(), false, false, true);
+        return new Declarables(exchange, queue, BindingBuilder.bind(queue).to(exchange));
     }
 }
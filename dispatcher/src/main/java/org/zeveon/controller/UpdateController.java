@@ -2,30 +2,45 @@ package org.zeveon.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.unit.DataSize;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.GetFile;
 import org.telegram.telegrambots.meta.api.methods.send.SendDocument;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
+import org.telegram.telegrambots.meta.api.objects.Document;
 import org.telegram.telegrambots.meta.api.objects.InputFile;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 import org.zeveon.component.HealthBot;
+import org.zeveon.component.NotificationSender;
 import org.zeveon.context.UserContext;
-import org.zeveon.data.Data;
+import org.zeveon.data.HostRegistry;
+import org.zeveon.data.SubscriptionIndex;
 import org.zeveon.entity.ChatSettings;
 import org.zeveon.entity.Host;
+import org.zeveon.model.BotMode;
 import org.zeveon.model.Command;
 import org.zeveon.model.HealthInfo;
+import org.zeveon.model.HostInfo;
 import org.zeveon.model.Language;
 import org.zeveon.model.Method;
+import org.zeveon.model.SlaReport;
+import org.zeveon.model.SlaWindow;
 import org.zeveon.service.ChatSettingsService;
 import org.zeveon.service.HealthService;
 import org.zeveon.service.PersonService;
 import org.zeveon.service.StatisticService;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.ZoneId;
@@ -33,13 +48,19 @@ import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.stream;
 import static java.util.Collections.emptySet;
 import static java.util.Comparator.comparing;
 import static java.util.Optional.ofNullable;
+import static java.util.function.Predicate.not;
+import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.lang3.BooleanUtils.isTrue;
 import static org.apache.commons.lang3.StringUtils.*;
@@ -55,6 +76,12 @@ public class UpdateController {
 
     private static final String NEW_LINE_TEMPLATE = "%s\n%s";
     private static final String HOST_LIST_TEMPLATE = "%s: %s";
+    private static final String DASH = "-";
+    private static final double NANOS_IN_SECOND = 1_000_000_000.0;
+    private static final String COMMA_SPACE = ", ";
+    private static final String ELLIPSIS = "...";
+    private static final String URL_FIELD = "url";
+    private static final int MAX_LISTED_INVALID_URLS = 20;
     public static final String UTC = "UTC";
 
     private final MessageSource messageSource;
@@ -67,13 +94,46 @@ public class UpdateController {
 
     private final PersonService personService;
 
+    private final HostRegistry hostRegistry;
+
+    private final NotificationSender notificationSender;
+
+    private final SubscriptionIndex subscriptionIndex;
+
+    private final ExecutorService statisticExecutor;
+
     private HealthBot healthBot;
 
+    @Value("${bot.import.max-file-size}")
+    private DataSize importMaxFileSize;
+
+    @Value("${bot.import.max-hosts}")
+    private Integer importMaxHosts;
+
+    @Value("${bot.mode}")
+    private BotMode botMode;
+
+    @Value("${bot.webhook.url}")
+    private String webhookUrl;
+
+    @Value("${bot.webhook.path}")
+    private String webhookPath;
+
+    @Value("${bot.webhook.secret-token}")
+    private String webhookSecretToken;
+
     public void registerBot(HealthBot healthBot) {
         this.healthBot = healthBot;
-        Data.initialize(healthService.getAllHosts());
+        notificationSender.registerBot(healthBot);
+        hostRegistry.initialize(healthService.getAllHosts());
         try {
-            new TelegramBotsApi(DefaultBotSession.class).registerBot(healthBot);
+            switch (botMode) {
+                case LONG_POLLING -> new TelegramBotsApi(DefaultBotSession.class).registerBot(healthBot);
+                case WEBHOOK -> healthBot.execute(SetWebhook.builder()
+                        .url(webhookUrl + webhookPath)
+                        .secretToken(defaultIfEmpty(webhookSecretToken, null))
+                        .build());
+            }
         } catch (TelegramApiException e) {
             throw new RuntimeException(e);
         }
@@ -82,10 +142,10 @@ public class UpdateController {
     public void processUpdate(Update update) {
         var message = update.getMessage();
         var chatId = message.getChatId();
+        var text = message.hasDocument() ? message.getCaption() : message.getText();
         if (isTrue(message.getGroupchatCreated())) {
             sendResponse(buildChatCreatedResponse(chatId), chatId);
-        } else {
-            var text = message.getText();
+        } else if (text != null) {
             var command = text.split(WHITESPACE_CHARACTER)[0];
             if (command.startsWith(SLASH)) {
                 var args = text.replace(command, EMPTY).strip();
@@ -93,11 +153,14 @@ public class UpdateController {
                 if (commandAndInvocation.length == 1 || commandAndInvocation[1].equals(healthBot.getBotUsername())) {
                     switch (commandAndInvocation[0]) {
                         case Command.HELP -> sendResponse(buildHelpResponse(chatId), chatId);
-                        case Command.ADD -> sendResponse(buildAddResponse(chatId, args), chatId);
+                        case Command.ADD -> sendResponse(message.hasDocument()
+                                ? buildImportResponse(chatId, message.getDocument())
+                                : buildAddResponse(chatId, args), chatId);
                         case Command.GET_HOSTS -> sendResponse(buildHostsResponse(chatId), chatId);
                         case Command.REMOVE -> sendResponse(buildRemoveResponse(chatId, args), chatId);
                         case Command.REMOVE_ALL -> sendResponse(buildRemoveAllResponse(chatId), chatId);
-                        case Command.STATISTIC -> sendResponse(buildStatisticResponse(chatId), chatId);
+                        case Command.STATISTIC -> sendStatisticResponse(chatId);
+                        case Command.SLA -> sendResponse(buildSlaResponse(chatId, args), chatId);
                         case Command.SETTINGS -> sendResponse(buildSettingsResponse(chatId), chatId);
                         case Command.CHANGE_LANGUAGE -> sendResponse(buildChangeLanguageResponse(chatId, args.toUpperCase()), chatId);
                         case Command.CHANGE_OFFSET -> sendResponse(buildChangeOffsetResponse(chatId, args.toUpperCase()), chatId);
@@ -113,10 +176,10 @@ public class UpdateController {
     }
 
     public void reportStatusCodeChanged(Host host, Method method, HealthInfo healthInfo) {
-        chatSettingsService.findChatSettingsByHostAndMethod(host, method)
-                .forEach(c -> sendResponse(
-                        buildStatusCodeChangedResponse(c.getChatId(), host, healthInfo),
-                        c.getChatId()
+        subscriptionIndex.getSubscribers(host.getId(), method)
+                .forEach(s -> notificationSender.send(
+                        s.getChatId(),
+                        buildStatusCodeChangedResponse(s.getLocale(), host, healthInfo)
                 ));
     }
 
@@ -129,11 +192,39 @@ public class UpdateController {
 
     private void sendResponse(Optional<InputFile> inputFile, Long chatId) {
         inputFile.ifPresentOrElse(
-                i -> sendResponse(i, chatId),
+                i -> {
+                    try {
+                        sendResponse(i, chatId);
+                    } finally {
+                        closeMedia(i);
+                    }
+                },
                 () -> sendResponse(getLocalizedMessage("message.statistic_generation_failed", chatId), chatId)
         );
     }
 
+    /**
+     * The acknowledgement is sent before the report is submitted, so a quick report cannot overtake it
+     */
+    private void sendStatisticResponse(Long chatId) {
+        sendResponse(getLocalizedMessage("message.statistic_preparing", chatId), chatId);
+        try {
+            statisticExecutor.execute(() -> sendResponse(buildStatisticResponse(chatId), chatId));
+        } catch (RejectedExecutionException e) {
+            sendResponse(getLocalizedMessage("message.statistic_generation_busy", chatId), chatId);
+        }
+    }
+
+    private void closeMedia(InputFile inputFile) {
+        try {
+            if (inputFile.getNewMediaStream() != null) {
+                inputFile.getNewMediaStream().close();
+            }
+        } catch (IOException e) {
+            log.error(e.getMessage());
+        }
+    }
+
     private void sendResponse(InputFile inputFile, Long chatId) {
         var response = new SendDocument();
         response.setChatId(chatId);
@@ -175,16 +266,53 @@ public class UpdateController {
                 ? stream(args.split(LF)).map(String::strip).collect(toSet())
                 : emptySet();
         if (!argsSet.isEmpty()) {
-            healthService.saveHosts(argsSet, chatId);
+            var result = healthService.saveHosts(argsSet, chatId);
+            if (!result.getInvalidUrls().isEmpty()) {
+                sendResponse(buildInvalidUrlsResponse(chatId, result.getInvalidUrls()), chatId);
+            }
             return buildHostsResponse(chatId);
         } else {
             return getLocalizedMessage("message.nothing_to_add", chatId);
         }
     }
 
+    private String buildImportResponse(Long chatId, Document document) {
+        if (document.getFileSize() != null && document.getFileSize() > importMaxFileSize.toBytes()) {
+            return getLocalizedMessage("message.import_file_too_large", chatId).formatted(importMaxFileSize.toMegabytes());
+        }
+        Set<String> urls;
+        try (var reader = new BufferedReader(new InputStreamReader(
+                healthBot.downloadFileAsStream(healthBot.execute(new GetFile(document.getFileId()))), UTF_8))) {
+            urls = reader.lines()
+                    .flatMap(l -> stream(l.split(WHITESPACE_CHARACTER)))
+                    .filter(not(String::isEmpty))
+                    .collect(toSet());
+        } catch (TelegramApiException | IOException | UncheckedIOException e) {
+            log.error(e.getMessage());
+            return getLocalizedMessage("message.import_failed", chatId);
+        }
+        if (urls.isEmpty()) {
+            return getLocalizedMessage("message.nothing_to_add", chatId);
+        } else if (urls.size() > importMaxHosts) {
+            return getLocalizedMessage("message.import_too_many_hosts", chatId).formatted(importMaxHosts);
+        }
+        var result = healthService.saveHosts(urls, chatId);
+        if (!result.getInvalidUrls().isEmpty()) {
+            sendResponse(buildInvalidUrlsResponse(chatId, result.getInvalidUrls()), chatId);
+        }
+        return getLocalizedMessage("message.import_result", chatId)
+                .formatted(result.getAdded(), result.getAlreadyAdded(), result.getInvalidUrls().size());
+    }
+
+    private String buildInvalidUrlsResponse(Long chatId, List<String> invalidUrls) {
+        var listed = String.join(COMMA_SPACE, invalidUrls.subList(0, Math.min(invalidUrls.size(), MAX_LISTED_INVALID_URLS)));
+        return getLocalizedMessage("exception.pattern", chatId)
+                .formatted(URL_FIELD, invalidUrls.size() > MAX_LISTED_INVALID_URLS ? listed + COMMA_SPACE + ELLIPSIS : listed);
+    }
+
     private String buildHostsResponse(Long chatId) {
         return healthService.getHosts(chatId).stream()
-                .sorted(comparing(Host::getId))
+                .sorted(comparing(HostInfo::getId))
                 .map(h -> HOST_LIST_TEMPLATE.formatted(h.getId(), h.getUrl().replace(DOT, INVISIBLE_DOT)))
                 .reduce(NEW_LINE_TEMPLATE::formatted)
                 .orElse(getLocalizedMessage("message.empty_hosts", chatId));
@@ -206,6 +334,43 @@ public class UpdateController {
         return statisticService.generateStatistic(chatId);
     }
 
+    private String buildSlaResponse(Long chatId, String args) {
+        var windowLabel = args.isEmpty() ? SlaWindow.DAY.getLabel() : args;
+        return SlaWindow.getByLabel(windowLabel)
+                .map(window -> {
+                    var hosts = healthService.getHosts(chatId).stream()
+                            .collect(toMap(HostInfo::getId, HostInfo::getUrl));
+                    return statisticService.getSlaReports(chatId, window.getDuration()).stream()
+                            .filter(r -> hosts.containsKey(r.getHostId()))
+                            .sorted(comparing(SlaReport::getHostId))
+                            .map(r -> buildSlaReportResponse(chatId, hosts.get(r.getHostId()), r))
+                            .reduce(NEW_LINE_TEMPLATE::formatted)
+                            .map(reports -> getLocalizedMessage("message.sla", chatId).formatted(window.getLabel(), reports))
+                            .orElse(getLocalizedMessage("message.empty_hosts", chatId));
+                })
+                .orElse(getLocalizedMessage("message.no_such_sla_window", chatId).formatted(windowLabel));
+    }
+
+    private String buildSlaReportResponse(Long chatId, String url, SlaReport slaReport) {
+        var responseUrl = url.replace(DOT, INVISIBLE_DOT);
+        if (slaReport.getChecks() == 0) {
+            return getLocalizedMessage("sla.report_no_data", chatId).formatted(responseUrl);
+        }
+        var mttr = getDurationReadableFormat(slaReport.getMttr(), chatId);
+        return getLocalizedMessage("sla.report", chatId).formatted(
+                responseUrl,
+                slaReport.getUptime(),
+                slaReport.getOutages(),
+                mttr.isEmpty() ? DASH : mttr,
+                toSeconds(slaReport.getResponseTimeP50()),
+                toSeconds(slaReport.getResponseTimeP95()),
+                toSeconds(slaReport.getResponseTimeP99()));
+    }
+
+    private double toSeconds(Duration duration) {
+        return duration.toNanos() / NANOS_IN_SECOND;
+    }
+
     private String buildChangeLanguageResponse(Long chatId, String language) {
         if (languageSupported(language)) {
             chatSettingsService.updateLocale(chatId, language);
@@ -245,20 +410,20 @@ public class UpdateController {
         return getLocalizedMessage("message.new_chat", chatId).formatted(buildHelpResponse(chatId));
     }
 
-    private String buildStatusCodeChangedResponse(Long chatId, Host host, HealthInfo healthInfo) {
+    private String buildStatusCodeChangedResponse(Locale locale, Host host, HealthInfo healthInfo) {
         var responseUrl = host.getUrl().replace(DOT, INVISIBLE_DOT);
         int responseCode = healthInfo.getResponseCode();
         if (!healthInfo.isStatisticExists()) {
             return responseCode == 0
-                    ? getLocalizedMessage("message.host_just_added_not_reachable", chatId).formatted(responseUrl)
-                    : getLocalizedMessage("message.host_just_added", chatId).formatted(responseUrl, responseCode);
+                    ? getLocalizedMessage("message.host_just_added_not_reachable", locale).formatted(responseUrl)
+                    : getLocalizedMessage("message.host_just_added", locale).formatted(responseUrl, responseCode);
         }
         if (responseCode == 0) {
-            return getLocalizedMessage("message.host_not_reachable", chatId).formatted(responseUrl);
+            return getLocalizedMessage("message.host_not_reachable", locale).formatted(responseUrl);
         }
         return HttpStatus.valueOf(responseCode).is2xxSuccessful()
-                ? getLocalizedMessage("message.host_restored", chatId).formatted(responseUrl, responseCode)
-                : getLocalizedMessage("message.host_down", chatId).formatted(responseUrl, responseCode);
+                ? getLocalizedMessage("message.host_restored", locale).formatted(responseUrl, responseCode)
+                : getLocalizedMessage("message.host_down", locale).formatted(responseUrl, responseCode);
     }
 
     private String buildRemoveAllResponse(Long chatId) {
@@ -376,6 +541,10 @@ public class UpdateController {
     }
 
     private String getLocalizedMessage(String code, Long chatId) {
-        return messageSource.getMessage(code, null, chatSettingsService.getLocale(chatId));
+        return getLocalizedMessage(code, chatSettingsService.getLocale(chatId));
+    }
+
+    private String getLocalizedMessage(String code, Locale locale) {
+        return messageSource.getMessage(code, null, locale);
     }
 }
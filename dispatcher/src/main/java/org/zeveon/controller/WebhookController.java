@@ -0,0 +1,69 @@
+package org.zeveon.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.zeveon.component.UpdateDispatcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Receives updates pushed by Telegram when the bot runs in webhook mode.
+ * The request body is deserialized straight from the input stream and handed over to {@link UpdateDispatcher}.
+ *
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "bot.mode", havingValue = "WEBHOOK")
+public class WebhookController {
+
+    public static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    private final ObjectReader updateReader;
+
+    private final UpdateDispatcher updateDispatcher;
+
+    @Value("${bot.webhook.secret-token}")
+    private String secretToken;
+
+    public WebhookController(ObjectMapper objectMapper, UpdateDispatcher updateDispatcher) {
+        this.updateReader = objectMapper.readerFor(Update.class);
+        this.updateDispatcher = updateDispatcher;
+    }
+
+    @PostMapping("${bot.webhook.path}")
+    @ResponseStatus(HttpStatus.OK)
+    public void onUpdateReceived(@RequestHeader(name = SECRET_TOKEN_HEADER, required = false) String token,
+                                 InputStream body) throws IOException {
+        if (!isAuthorized(token)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        Update update;
+        try {
+            update = updateReader.readValue(body);
+        } catch (JsonProcessingException e) {
+            log.warn("Malformed webhook update: {}", e.getOriginalMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        updateDispatcher.dispatch(update);
+    }
+
+    private boolean isAuthorized(String token) {
+        return secretToken.isEmpty() || token != null && MessageDigest.isEqual(
+                secretToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+}
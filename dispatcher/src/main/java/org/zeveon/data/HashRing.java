@@ -0,0 +1,67 @@
+package org.zeveon.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Immutable consistent hash ring of cluster nodes.
+ * Each node is placed at several virtual points, so a joining or leaving node moves only its own share of hosts.
+ *
+ * @author Stanislav Vafin
+ */
+public class HashRing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String VIRTUAL_NODE_TEMPLATE = "%s#%d";
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    private final List<String> nodeIds;
+
+    public HashRing(Collection<String> nodeIds, int virtualNodes) {
+        this.nodeIds = nodeIds.stream().sorted().toList();
+        this.nodeIds.forEach(nodeId -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(VIRTUAL_NODE_TEMPLATE.formatted(nodeId, i)), nodeId);
+            }
+        });
+    }
+
+    public Optional<String> getOwner(Long hostId) {
+        if (ring.isEmpty()) {
+            return Optional.empty();
+        }
+        return ofNullable(ring.ceilingEntry(mix(hostId)))
+                .or(() -> Optional.of(ring.firstEntry()))
+                .map(Map.Entry::getValue);
+    }
+
+    public List<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    private static long hash(String value) {
+        var hash = FNV_OFFSET_BASIS;
+        for (var b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads sequential host ids evenly over the ring
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
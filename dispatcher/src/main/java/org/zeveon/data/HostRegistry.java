@@ -0,0 +1,125 @@
+package org.zeveon.data;
+
+import org.springframework.stereotype.Component;
+import org.zeveon.entity.Host;
+import org.zeveon.entity.Statistic;
+import org.zeveon.model.Method;
+import org.zeveon.model.ProbeState;
+import org.zeveon.model.ProbeTargets;
+import org.zeveon.util.ResponseTimeAccumulator;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Arrays.stream;
+import static java.util.Optional.ofNullable;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Component
+public class HostRegistry {
+
+    private final Map<Long, Host> hosts = new ConcurrentHashMap<>();
+
+    private final Map<Long, Map<Method, ResponseTimeAccumulator>> accumulators = new ConcurrentHashMap<>();
+
+    private final Map<Long, Map<Method, ProbeState>> probeStates = new ConcurrentHashMap<>();
+
+    private final Map<Long, ProbeTargets> probeTargets = new ConcurrentHashMap<>();
+
+    public void initialize(Collection<Host> initializationList) {
+        hosts.clear();
+        accumulators.clear();
+        probeStates.clear();
+        probeTargets.clear();
+        addAll(initializationList);
+    }
+
+    public void addAll(Collection<Host> newElements) {
+        newElements.forEach(e -> {
+            accumulators.putIfAbsent(e.getId(), buildAccumulators());
+            probeStates.putIfAbsent(e.getId(), buildProbeStates(e.getStatistic()));
+            probeTargets.put(e.getId(), new ProbeTargets(e.getUrl()));
+            hosts.put(e.getId(), e);
+        });
+    }
+
+    /**
+     * Replaces the probe state of hosts another node was checking with the state that node saved
+     * and starts their response time accumulators over
+     */
+    public void reloadAll(Collection<Host> reloadedElements) {
+        reloadedElements.forEach(e -> {
+            accumulators.put(e.getId(), buildAccumulators());
+            probeStates.put(e.getId(), buildProbeStates(e.getStatistic()));
+            probeTargets.put(e.getId(), new ProbeTargets(e.getUrl()));
+            hosts.put(e.getId(), e);
+        });
+    }
+
+    /**
+     * Drops the probe state of hosts handed over to another node, it is reloaded if they come back
+     */
+    public void releaseAllById(Collection<Long> releasedIds) {
+        releasedIds.forEach(id -> {
+            accumulators.remove(id);
+            probeStates.remove(id);
+        });
+    }
+
+    public void removeAllById(Set<Long> elementsToRemove) {
+        elementsToRemove.forEach(id -> {
+            hosts.remove(id);
+            accumulators.remove(id);
+            probeStates.remove(id);
+            probeTargets.remove(id);
+        });
+    }
+
+    public Optional<Host> getHostById(Long hostId) {
+        return ofNullable(hosts.get(hostId));
+    }
+
+    public Optional<ProbeTargets> getProbeTargets(Long hostId) {
+        return ofNullable(probeTargets.get(hostId));
+    }
+
+    public Set<Long> getHostIds() {
+        return Set.copyOf(hosts.keySet());
+    }
+
+    public List<Host> getHosts() {
+        return List.copyOf(hosts.values());
+    }
+
+    public ResponseTimeAccumulator getAccumulator(Long hostId, Method method) {
+        return accumulators.computeIfAbsent(hostId, id -> buildAccumulators()).get(method);
+    }
+
+    public Optional<ProbeState> getProbeState(Long hostId, Method method) {
+        return ofNullable(probeStates.get(hostId)).map(s -> s.get(method));
+    }
+
+    public void putProbeState(Long hostId, Method method, ProbeState probeState) {
+        probeStates.computeIfAbsent(hostId, id -> new ConcurrentHashMap<>()).put(method, probeState);
+    }
+
+    private Map<Method, ResponseTimeAccumulator> buildAccumulators() {
+        var hostAccumulators = new EnumMap<Method, ResponseTimeAccumulator>(Method.class);
+        stream(Method.values()).forEach(m -> hostAccumulators.put(m, new ResponseTimeAccumulator()));
+        return hostAccumulators;
+    }
+
+    private Map<Method, ProbeState> buildProbeStates(Collection<Statistic> statistic) {
+        var hostProbeStates = new ConcurrentHashMap<Method, ProbeState>();
+        statistic.stream()
+                .filter(s -> s.getResponseCode() != null)
+                .forEach(s -> hostProbeStates.put(s.getId().getMethod(), ProbeState.builder()
+                        .responseCode(s.getResponseCode())
+                        .needAppender(s.getNeedAppender())
+                        .preferredProtocol(s.getPreferredProtocol())
+                        .build()));
+        return hostProbeStates;
+    }
+}
@@ -0,0 +1,155 @@
+package org.zeveon.data;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.zeveon.model.HostCheckRate;
+import org.zeveon.model.Method;
+import org.zeveon.model.ProbeTask;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+import static java.util.Comparator.comparing;
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * Min-heap of host checks ordered by the instant they become due.
+ * Entries are invalidated lazily: only the entry referenced by the current plan is considered live.
+ * A dispatched check stays in flight until it is rescheduled or released; a lost one is dispatched again
+ * once the in-flight timeout expires.
+ *
+ * @author Stanislav Vafin
+ */
+@Component
+public class ProbeSchedule {
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(comparing(e -> e.dueAt));
+
+    private final Map<Long, Map<Method, Plan>> plans = new HashMap<>();
+
+    @Value("${health-check.in-flight-timeout}")
+    private Duration inFlightTimeout;
+
+    public synchronized void initialize(Collection<HostCheckRate> checkRates) {
+        queue.clear();
+        plans.clear();
+        update(List.of(), checkRates);
+    }
+
+    public synchronized void update(Collection<Long> hostIds, Collection<HostCheckRate> checkRates) {
+        var now = Instant.now();
+        var hostCheckRates = checkRates.stream().collect(groupingBy(HostCheckRate::getHostId));
+        hostIds.stream()
+                .filter(id -> !hostCheckRates.containsKey(id))
+                .forEach(plans::remove);
+        hostCheckRates.forEach((hostId, rates) -> {
+            var hostPlans = plans.computeIfAbsent(hostId, id -> new EnumMap<>(Method.class));
+            var methodRates = rates.stream().collect(groupingBy(HostCheckRate::getMethod));
+            hostPlans.keySet().removeIf(m -> !methodRates.containsKey(m));
+            methodRates.forEach((method, methodCheckRates) -> {
+                var checkRate = methodCheckRates.stream()
+                        .map(HostCheckRate::getCheckRate)
+                        .min(Duration::compareTo)
+                        .orElseThrow();
+                var previous = ofNullable(hostPlans.get(method));
+                var checkedAt = previous
+                        .map(p -> p.checkedAt)
+                        .or(() -> methodCheckRates.stream()
+                                .map(HostCheckRate::getModifiedDate)
+                                .filter(Objects::nonNull)
+                                .map(ZonedDateTime::toInstant)
+                                .max(Instant::compareTo))
+                        .orElse(null);
+                var plan = new Plan(checkRate, checkedAt, previous.map(p -> p.inFlightSince).orElse(null), null);
+                hostPlans.put(method, plan);
+                push(hostId, method, plan, checkedAt != null ? checkedAt.plus(checkRate) : now);
+            });
+        });
+    }
+
+    /**
+     * Replaces the whole set of planned hosts, keeping check and in-flight state of hosts that stay
+     */
+    public synchronized void rebalance(Collection<HostCheckRate> checkRates) {
+        update(List.copyOf(plans.keySet()), checkRates);
+    }
+
+    public synchronized Set<Long> getHostIds() {
+        return Set.copyOf(plans.keySet());
+    }
+
+    public synchronized void remove(Collection<Long> hostIds) {
+        hostIds.forEach(plans::remove);
+    }
+
+    public synchronized void reschedule(Long hostId, Method method, Instant checkedAt) {
+        ofNullable(plans.get(hostId))
+                .map(p -> p.get(method))
+                .ifPresent(plan -> {
+                    plan.checkedAt = checkedAt;
+                    plan.inFlightSince = null;
+                    push(hostId, method, plan, checkedAt.plus(plan.checkRate));
+                });
+    }
+
+    /**
+     * Drops the in-flight mark of a check that was not run, the already planned entry dispatches it again
+     */
+    public synchronized void release(Long hostId, Method method) {
+        ofNullable(plans.get(hostId))
+                .map(p -> p.get(method))
+                .ifPresent(plan -> plan.inFlightSince = null);
+    }
+
+    /**
+     * Each host × method is returned at most once per poll, whatever number of chats share it
+     */
+    public synchronized List<ProbeTask> pollDue(Instant now) {
+        var dueTasks = new ArrayList<ProbeTask>();
+        while (!queue.isEmpty() && !queue.peek().dueAt.isAfter(now)) {
+            var entry = queue.poll();
+            var plan = ofNullable(plans.get(entry.hostId))
+                    .map(p -> p.get(entry.method))
+                    .filter(p -> p.entry == entry);
+            plan.ifPresent(p -> {
+                if (p.inFlightSince != null && now.isBefore(p.inFlightSince.plus(inFlightTimeout))) {
+                    push(entry.hostId, entry.method, p, p.inFlightSince.plus(inFlightTimeout));
+                } else {
+                    p.inFlightSince = now;
+                    dueTasks.add(new ProbeTask(entry.hostId, entry.method));
+                    push(entry.hostId, entry.method, p, now.plus(p.checkRate));
+                }
+            });
+        }
+        return dueTasks;
+    }
+
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    private void push(Long hostId, Method method, Plan plan, Instant dueAt) {
+        var entry = new Entry(hostId, method, dueAt);
+        plan.entry = entry;
+        queue.add(entry);
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Long hostId;
+        private final Method method;
+        private final Instant dueAt;
+    }
+
+    @AllArgsConstructor
+    private static class Plan {
+        private final Duration checkRate;
+        private Instant checkedAt;
+        private Instant inFlightSince;
+        private Entry entry;
+    }
+}
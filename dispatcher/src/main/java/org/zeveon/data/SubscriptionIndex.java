@@ -0,0 +1,83 @@
+package org.zeveon.data;
+
+import org.springframework.stereotype.Component;
+import org.zeveon.entity.ChatSettings;
+import org.zeveon.entity.Host;
+import org.zeveon.model.Method;
+import org.zeveon.model.Subscriber;
+
+import java.time.ZoneId;
+import java.util.*;
+
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * In-memory index of chats subscribed to each host and method.
+ *
+ * @author Stanislav Vafin
+ */
+@Component
+public class SubscriptionIndex {
+
+    private final Map<Long, Subscriber> subscribers = new HashMap<>();
+
+    private final Map<Long, Set<Long>> chatHosts = new HashMap<>();
+
+    private final Map<Long, Map<Method, Set<Long>>> hostChats = new HashMap<>();
+
+    public synchronized void initialize(Collection<ChatSettings> chatSettings) {
+        subscribers.clear();
+        chatHosts.clear();
+        hostChats.clear();
+        chatSettings.forEach(this::put);
+    }
+
+    public synchronized void put(ChatSettings chatSettings) {
+        var chatId = chatSettings.getChatId();
+        remove(chatId);
+        var method = chatSettings.getMethod();
+        var hostIds = chatSettings.getHosts().stream()
+                .map(Host::getId)
+                .collect(toSet());
+        subscribers.put(chatId, Subscriber.builder()
+                .chatId(chatId)
+                .locale(Locale.forLanguageTag(chatSettings.getLocale()))
+                .zoneId(ZoneId.of(chatSettings.getZoneId()))
+                .method(method)
+                .build());
+        chatHosts.put(chatId, hostIds);
+        hostIds.forEach(hostId -> hostChats
+                .computeIfAbsent(hostId, id -> new EnumMap<>(Method.class))
+                .computeIfAbsent(method, m -> new HashSet<>())
+                .add(chatId));
+    }
+
+    public synchronized void remove(Long chatId) {
+        ofNullable(subscribers.remove(chatId)).ifPresent(subscriber -> chatHosts.remove(chatId)
+                .forEach(hostId -> ofNullable(hostChats.get(hostId)).ifPresent(methodChats -> {
+                    ofNullable(methodChats.get(subscriber.getMethod())).ifPresent(chats -> {
+                        chats.remove(chatId);
+                        if (chats.isEmpty()) {
+                            methodChats.remove(subscriber.getMethod());
+                        }
+                    });
+                    if (methodChats.isEmpty()) {
+                        hostChats.remove(hostId);
+                    }
+                })));
+    }
+
+    public synchronized Optional<Subscriber> getSubscriber(Long chatId) {
+        return ofNullable(subscribers.get(chatId));
+    }
+
+    public synchronized List<Subscriber> getSubscribers(Long hostId, Method method) {
+        return ofNullable(hostChats.get(hostId))
+                .map(methodChats -> methodChats.getOrDefault(method, Set.of()))
+                .orElse(Set.of())
+                .stream()
+                .map(subscribers::get)
+                .toList();
+    }
+}
@@ -6,7 +6,6 @@ import lombok.*;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.Semaphore;
 
 import static org.zeveon.util.ConstraintUtil.IP_REGEXP;
 import static org.zeveon.util.ConstraintUtil.LINK_REGEXP;
@@ -35,14 +34,10 @@ public class Host {
     private String url;
 
     @Builder.Default
-    @OneToMany(mappedBy = "id.host", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "id.host", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Statistic> statistic = new HashSet<>();
 
     @Builder.Default
     @ManyToMany(mappedBy = "hosts")
     private Set<ChatSettings> chatSettings = new HashSet<>();
-
-    @Builder.Default
-    @Transient
-    private Semaphore lock = new Semaphore(1);
 }
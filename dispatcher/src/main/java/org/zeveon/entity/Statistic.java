@@ -32,6 +32,24 @@ public class Statistic {
     @Column(name = "response_time")
     private Duration responseTime;
 
+    @Column(name = "response_time_p50")
+    private Duration responseTimeP50;
+
+    @Column(name = "response_time_p95")
+    private Duration responseTimeP95;
+
+    @Column(name = "response_time_p99")
+    private Duration responseTimeP99;
+
+    @Column(name = "response_time_ewma")
+    private Duration responseTimeEwma;
+
+    @Column(name = "response_time_min")
+    private Duration responseTimeMin;
+
+    @Column(name = "response_time_max")
+    private Duration responseTimeMax;
+
     @Column(name = "response_code")
     private Integer responseCode;
 
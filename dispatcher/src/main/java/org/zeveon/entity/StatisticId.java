@@ -18,7 +18,7 @@ import java.io.Serializable;
 @EqualsAndHashCode
 public class StatisticId implements Serializable {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "host_id")
     private Host host;
 
@@ -0,0 +1,14 @@
+package org.zeveon.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Getter
+@RequiredArgsConstructor
+public class ChatSettingsChangedEvent {
+
+    private final Long chatId;
+}
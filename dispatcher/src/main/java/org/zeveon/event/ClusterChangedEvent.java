@@ -0,0 +1,16 @@
+package org.zeveon.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Getter
+@RequiredArgsConstructor
+public class ClusterChangedEvent {
+
+    private final List<String> nodeIds;
+}
@@ -0,0 +1,16 @@
+package org.zeveon.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Getter
+@RequiredArgsConstructor
+public class HostsChangedEvent {
+
+    private final Collection<Long> hostIds;
+}
@@ -0,0 +1,16 @@
+package org.zeveon.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Getter
+@RequiredArgsConstructor
+public class SubscriptionChangedEvent {
+
+    private final Set<Long> hostIds;
+}
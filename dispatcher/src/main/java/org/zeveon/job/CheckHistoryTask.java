@@ -0,0 +1,149 @@
+package org.zeveon.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.zeveon.component.ClusterMembership;
+import org.zeveon.repository.CheckRollupRepository;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+
+/**
+ * Keeps check history partitions ahead of time, drops expired ones and downsamples history into
+ * minute and hour rollups.
+ *
+ * @author Stanislav Vafin
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CheckHistoryTask {
+
+    private static final String PARTITION_PREFIX = "check_history_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String CREATE_PARTITION = """
+            CREATE TABLE IF NOT EXISTS health.%s PARTITION OF health.check_history
+            FOR VALUES FROM ('%s') TO ('%s')
+            """;
+
+    private static final String DROP_PARTITION = "DROP TABLE IF EXISTS health.%s";
+
+    private static final String SELECT_PARTITIONS = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            JOIN pg_namespace n ON n.oid = p.relnamespace
+            WHERE n.nspname = 'health' AND p.relname = 'check_history'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CheckRollupRepository checkRollupRepository;
+
+    private final ClusterMembership clusterMembership;
+
+    @Value("${health-check.history.enabled}")
+    private boolean enabled;
+
+    @Value("${health-check.history.retention}")
+    private Duration retention;
+
+    @Value("${health-check.history.partitions-ahead}")
+    private Integer partitionsAhead;
+
+    @Value("${health-check.history.rollup-lookback}")
+    private Duration rollupLookback;
+
+    @Value("${health-check.history.rollup-context}")
+    private Duration rollupContext;
+
+    @Value("${health-check.history.rollup-chunk}")
+    private Duration rollupChunk;
+
+    @Value("${health-check.history.minute-retention}")
+    private Duration minuteRetention;
+
+    @Value("${health-check.history.hour-retention}")
+    private Duration hourRetention;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${health-check.history.maintenance-cron}")
+    public void maintainPartitions() {
+        if (!enabled || !clusterMembership.isLeader()) {
+            return;
+        }
+        try {
+            var today = LocalDate.now(ZoneOffset.UTC);
+            for (int i = 0; i <= partitionsAhead; i++) {
+                createPartition(today.plusDays(i));
+            }
+            var expiredBefore = Instant.now().minus(retention);
+            jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class).stream()
+                    .filter(name -> getPartitionEnd(name).filter(end -> !end.isAfter(expiredBefore)).isPresent())
+                    .forEach(name -> {
+                        jdbcTemplate.execute(DROP_PARTITION.formatted(name));
+                        log.info("Check history partition {} dropped", name);
+                    });
+            checkRollupRepository.deleteMinutesBefore(Instant.now().minus(minuteRetention));
+            checkRollupRepository.deleteHoursBefore(Instant.now().minus(hourRetention));
+        } catch (DataAccessException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${health-check.history.rollup-interval}")
+    public void rollup() {
+        if (!enabled || !clusterMembership.isLeader()) {
+            return;
+        }
+        try {
+            var to = Instant.now().truncatedTo(MINUTES).plus(1, MINUTES);
+            var from = checkRollupRepository.findLatestMinute()
+                    .orElse(to.minus(minuteRetention))
+                    .minus(rollupLookback);
+            for (var chunkFrom = from; chunkFrom.isBefore(to); chunkFrom = chunkFrom.plus(rollupChunk)) {
+                var chunkTo = min(chunkFrom.plus(rollupChunk), to);
+                checkRollupRepository.rollupMinutes(chunkFrom, chunkTo, rollupContext);
+                checkRollupRepository.rollupHours(chunkFrom.truncatedTo(HOURS), chunkTo);
+            }
+        } catch (DataAccessException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    private void createPartition(LocalDate day) {
+        jdbcTemplate.execute(CREATE_PARTITION.formatted(
+                PARTITION_PREFIX + PARTITION_SUFFIX.format(day),
+                day.atStartOfDay().atOffset(ZoneOffset.UTC),
+                day.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC)));
+    }
+
+    private Optional<Instant> getPartitionEnd(String name) {
+        try {
+            return name.startsWith(PARTITION_PREFIX)
+                    ? Optional.of(LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX)
+                    .plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC))
+                    : Optional.empty();
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -1,19 +1,29 @@
 package org.zeveon.job;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.zeveon.component.ClusterMembership;
+import org.zeveon.component.HealthCheckMetrics;
 import org.zeveon.component.RabbitSender;
-import org.zeveon.data.Data;
-import org.zeveon.entity.ChatSettings;
-import org.zeveon.entity.Host;
-import org.zeveon.entity.Statistic;
-import org.zeveon.service.ChatSettingsService;
+import org.zeveon.data.HostRegistry;
+import org.zeveon.data.ProbeSchedule;
+import org.zeveon.event.ClusterChangedEvent;
+import org.zeveon.event.SubscriptionChangedEvent;
+import org.zeveon.model.HostCheckRate;
+import org.zeveon.model.ProbeTask;
+import org.zeveon.repository.HostRepository;
 
 import java.time.Duration;
-import java.time.ZonedDateTime;
-import java.util.Optional;
+import java.time.Instant;
+
+import static java.util.function.Predicate.not;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
 
 /**
  * @author Stanislav Vafin
@@ -22,44 +32,73 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class PrepareHostsTask {
 
+    private static final int BATCH_SIZE = 1000;
+
     private final RabbitSender rabbitSender;
 
-    private final ChatSettingsService chatSettingsService;
+    private final ClusterMembership clusterMembership;
 
-    @Scheduled(fixedRate = 1000)
+    private final HostRepository hostRepository;
+
+    private final HostRegistry hostRegistry;
+
+    private final ProbeSchedule probeSchedule;
+
+    private final HealthCheckMetrics healthCheckMetrics;
+
+    @EventListener(ApplicationReadyEvent.class)
     @Transactional(readOnly = true)
-    public void scheduleFixedRateTask() {
-        chatSettingsService.getAllChatSettings()
-                .forEach(chatSettings -> chatSettings.getHosts()
-                        .forEach(host -> {
-                            var modifiedDate = getModifiedDate(chatSettings, host);
-                            modifiedDate.ifPresentOrElse(
-                                    md -> {
-                                        if (checkHostReady(chatSettings, md)) {
-                                            lockHostAndSend(host);
-                                        }
-                                    },
-                                    () -> lockHostAndSend(host)
-                            );
-                        }));
+    public void initializeSchedule() {
+        probeSchedule.initialize(clusterMembership.filterOwned(hostRepository.findAllCheckRates()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = REQUIRES_NEW, readOnly = true)
+    public void updateSchedule(SubscriptionChangedEvent event) {
+        if (!event.getHostIds().isEmpty()) {
+            var checkRates = hostRepository.findCheckRatesByHostIds(event.getHostIds());
+            probeSchedule.update(event.getHostIds(), clusterMembership.filterOwned(checkRates));
+        }
     }
 
-    private void lockHostAndSend(Host host) {
-        Data.getHostById(host.getId()).ifPresent(h -> {
-            if (h.getLock().tryAcquire()) {
-                rabbitSender.send(host.getId());
-            }
-        });
+    /**
+     * Hosts taken over from another node get the probe state that node saved before they are scheduled
+     */
+    @EventListener
+    @Transactional(readOnly = true)
+    public void rebalanceSchedule(ClusterChangedEvent event) {
+        var plannedHostIds = probeSchedule.getHostIds();
+        var checkRates = clusterMembership.filterOwned(hostRepository.findAllCheckRates());
+        var ownedHostIds = checkRates.stream()
+                .map(HostCheckRate::getHostId)
+                .collect(toSet());
+        var acquiredHostIds = ownedHostIds.stream()
+                .filter(not(plannedHostIds::contains))
+                .toList();
+        for (int i = 0; i < acquiredHostIds.size(); i += BATCH_SIZE) {
+            hostRegistry.reloadAll(hostRepository.findWithStatisticByIdIn(
+                    acquiredHostIds.subList(i, Math.min(i + BATCH_SIZE, acquiredHostIds.size()))));
+        }
+        hostRegistry.releaseAllById(plannedHostIds.stream()
+                .filter(not(ownedHostIds::contains))
+                .toList());
+        probeSchedule.rebalance(checkRates);
     }
 
-    private boolean checkHostReady(ChatSettings chatSettings, ZonedDateTime modifiedDate) {
-        return chatSettings.getCheckRate()
-                .minus(Duration.between(modifiedDate, ZonedDateTime.now())).isNegative();
+    @Scheduled(fixedRate = 1000)
+    public void scheduleFixedRateTask() {
+        var startTime = System.nanoTime();
+        var dueTasks = probeSchedule.pollDue(Instant.now());
+        dueTasks.forEach(this::send);
+        healthCheckMetrics.recordSchedulerTick(Duration.ofNanos(System.nanoTime() - startTime), dueTasks.size());
     }
 
-    private Optional<ZonedDateTime> getModifiedDate(ChatSettings chatSettings, Host host) {
-        return host.getStatistic().stream()
-                .filter(s -> s.getId().getMethod().equals(chatSettings.getMethod()))
-                .findAny().map(Statistic::getModifiedDate);
+    private void send(ProbeTask probeTask) {
+        if (clusterMembership.isOwner(probeTask.getHostId())
+                && hostRegistry.getHostById(probeTask.getHostId()).isPresent()) {
+            rabbitSender.send(probeTask);
+        } else {
+            probeSchedule.release(probeTask.getHostId(), probeTask.getMethod());
+        }
     }
 }
@@ -0,0 +1,40 @@
+package org.zeveon.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.zeveon.data.SubscriptionIndex;
+import org.zeveon.event.ChatSettingsChangedEvent;
+import org.zeveon.repository.ChatSettingsRepository;
+
+import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatSettingsListener {
+
+    private final ChatSettingsRepository chatSettingsRepository;
+
+    private final SubscriptionIndex subscriptionIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initializeSubscriptions() {
+        subscriptionIndex.initialize(chatSettingsRepository.findAllWithHosts());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = REQUIRES_NEW, readOnly = true)
+    public void updateSubscriptions(ChatSettingsChangedEvent event) {
+        chatSettingsRepository.findWithHostsByChatId(event.getChatId()).ifPresentOrElse(
+                subscriptionIndex::put,
+                () -> subscriptionIndex.remove(event.getChatId())
+        );
+    }
+}
@@ -0,0 +1,66 @@
+package org.zeveon.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.cache.CacheManager;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+import org.zeveon.cache.Cache;
+import org.zeveon.component.ClusterBroadcaster;
+import org.zeveon.component.ClusterMembership;
+import org.zeveon.event.ChatSettingsChangedEvent;
+import org.zeveon.event.HostsChangedEvent;
+import org.zeveon.event.SubscriptionChangedEvent;
+import org.zeveon.job.PrepareHostsTask;
+import org.zeveon.model.ClusterChange;
+
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Applies changes broadcast by other cluster nodes through the same listeners that apply local ones.
+ * Changes are consumed by a single thread, in the order they were committed on their node.
+ *
+ * @author Stanislav Vafin
+ */
+@Component
+@RequiredArgsConstructor
+public class ClusterChangeListener {
+
+    private final ClusterMembership clusterMembership;
+
+    private final HostRegistryListener hostRegistryListener;
+
+    private final ChatSettingsListener chatSettingsListener;
+
+    private final PrepareHostsTask prepareHostsTask;
+
+    private final CacheManager cacheManager;
+
+    @RabbitListener(queues = "#{rabbitConfig.clusterQueueName}", concurrency = "1", autoStartup = "${cluster.enabled}")
+    public void listen(List<Message<String>> messages) {
+        messages.stream()
+                .filter(m -> !clusterMembership.getNodeId().equals(
+                        m.getHeaders().get(ClusterBroadcaster.NODE_ID, String.class)))
+                .map(m -> ClusterChange.fromPayload(m.getPayload()))
+                .forEach(this::apply);
+    }
+
+    private void apply(ClusterChange change) {
+        switch (change.getType()) {
+            case HOSTS -> hostRegistryListener.updateRegistry(new HostsChangedEvent(change.getIds()));
+            case SUBSCRIPTIONS -> prepareHostsTask.updateSchedule(new SubscriptionChangedEvent(Set.copyOf(change.getIds())));
+            case CHAT_SETTINGS -> change.getIds().forEach(chatId -> {
+                chatSettingsListener.updateSubscriptions(new ChatSettingsChangedEvent(chatId));
+                evict(Cache.HOSTS, chatId);
+            });
+            case USERS -> change.getIds().forEach(userId -> evict(Cache.USERS, userId));
+        }
+    }
+
+    private void evict(String cacheName, Long key) {
+        ofNullable(cacheManager.getCache(cacheName)).ifPresent(cache -> cache.evict(key));
+    }
+}
@@ -0,0 +1,42 @@
+package org.zeveon.listener;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.zeveon.data.HostRegistry;
+import org.zeveon.entity.Host;
+import org.zeveon.event.HostsChangedEvent;
+import org.zeveon.repository.HostRepository;
+
+import static java.util.function.Predicate.not;
+import static java.util.stream.Collectors.toSet;
+import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Component
+@RequiredArgsConstructor
+public class HostRegistryListener {
+
+    private final HostRepository hostRepository;
+
+    private final HostRegistry hostRegistry;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = REQUIRES_NEW, readOnly = true)
+    public void updateRegistry(HostsChangedEvent event) {
+        if (event.getHostIds().isEmpty()) {
+            return;
+        }
+        var hosts = hostRepository.findWithStatisticByIdIn(event.getHostIds());
+        var foundHostIds = hosts.stream()
+                .map(Host::getId)
+                .collect(toSet());
+        hostRegistry.removeAllById(event.getHostIds().stream()
+                .filter(not(foundHostIds::contains))
+                .collect(toSet()));
+        hostRegistry.addAll(hosts);
+    }
+}
@@ -1,37 +1,135 @@
 package org.zeveon.listener;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 import org.zeveon.component.HealthBot;
+import org.zeveon.component.HealthCheckMetrics;
+import org.zeveon.component.RabbitSender;
 import org.zeveon.controller.UpdateController;
-import org.zeveon.data.Data;
+import org.zeveon.data.HostRegistry;
+import org.zeveon.data.ProbeSchedule;
+import org.zeveon.entity.Host;
+import org.zeveon.model.ExecutionMode;
+import org.zeveon.model.Method;
+import org.zeveon.model.ProbeTask;
 import org.zeveon.service.HealthCheckService;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
 /**
  * @author Stanislav Vafin
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class HostsListener {
+
     private final HealthCheckService healthCheckService;
 
     private final HealthBot healthBot;
 
     private final UpdateController updateController;
 
-    @RabbitListener(queues = "${rabbitmq.queue}")
-    public void listen(Long hostId) {
-        Data.getHostById(hostId).ifPresent(host -> {
-            try {
-                healthCheckService.checkHealth(
-                        host.getId(),
+    private final HostRegistry hostRegistry;
+
+    private final ProbeSchedule probeSchedule;
+
+    private final Executor healthCheckExecutor;
+
+    private final Semaphore healthCheckPermits;
+
+    private final HealthCheckMetrics healthCheckMetrics;
+
+    @Value("${health-check.execution-mode}")
+    private ExecutionMode executionMode;
+
+    /**
+     * In LISTENER mode every check runs to completion on the listener thread before the next message,
+     * so the listener concurrency bounds the checks in flight. In EXECUTOR mode the listener only hands checks over
+     * to the health-check executor, bounded by the global semaphore, and takes the next message right away
+     */
+    @RabbitListener(queues = "#{rabbitConfig.queueName}")
+    public void listen(List<Message<String>> messages) {
+        var receivedAt = System.currentTimeMillis();
+        messages.forEach(message -> {
+            ofNullable(message.getHeaders().get(RabbitSender.ENQUEUED_AT, Long.class))
+                    .ifPresent(enqueuedAt -> healthCheckMetrics.recordQueueLag(Duration.ofMillis(receivedAt - enqueuedAt)));
+            parseProbeTask(message.getPayload()).ifPresent(probeTask -> hostRegistry.getHostById(probeTask.getHostId())
+                    .ifPresentOrElse(host -> {
+                        switch (executionMode) {
+                            case LISTENER -> runCheckHealth(host, probeTask.getMethod());
+                            case EXECUTOR -> submitCheckHealth(host, probeTask.getMethod());
+                        }
+                    }, () -> probeSchedule.release(probeTask.getHostId(), probeTask.getMethod())));
+        });
+    }
+
+    /**
+     * A malformed message is dropped on its own instead of failing and requeueing the whole batch
+     */
+    private Optional<ProbeTask> parseProbeTask(String payload) {
+        try {
+            return Optional.of(ProbeTask.fromPayload(payload));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            log.error("Malformed probe task {}: {}", payload, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void runCheckHealth(Host host, Method method) {
+        try {
+            checkHealth(host, method).join();
+        } catch (CompletionException e) {
+            log.debug(e.getMessage());
+        }
+    }
+
+    private void submitCheckHealth(Host host, Method method) {
+        try {
+            healthCheckPermits.acquire();
+        } catch (InterruptedException e) {
+            probeSchedule.release(host.getId(), method);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            healthCheckExecutor.execute(() -> checkHealth(host, method)
+                    .whenComplete((result, throwable) -> healthCheckPermits.release()));
+        } catch (RejectedExecutionException e) {
+            healthCheckPermits.release();
+            probeSchedule.release(host.getId(), method);
+            log.error(e.getMessage());
+        }
+    }
+
+    private CompletableFuture<Void> checkHealth(Host host, Method method) {
+        return completedFuture(host.getId())
+                .thenCompose(id -> healthCheckService.checkHealth(
+                        id,
+                        method,
                         healthBot.getBotInfo(),
                         (m, h) -> updateController.reportStatusCodeChanged(host, m, h)
-                );
-            } finally {
-                host.getLock().release();
-            }
-        });
+                ))
+                .whenComplete((result, throwable) -> {
+                    probeSchedule.reschedule(host.getId(), method, Instant.now());
+                    if (throwable != null) {
+                        log.error(throwable.getMessage());
+                    }
+                });
     }
 }
@@ -0,0 +1,20 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class CheckHistoryRecord {
+
+    private Long hostId;
+    private Method method;
+    private Instant checkedAt;
+    private int latencyMicros;
+    private int status;
+}
@@ -0,0 +1,44 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.zeveon.util.LatencyHistogram;
+
+import java.time.Instant;
+
+/**
+ * Aggregated check results of a host and method within a time bucket.
+ *
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class CheckRollup {
+
+    private Long hostId;
+    private Method method;
+    private Instant bucket;
+    private int checks;
+    private int failures;
+    private long latencySum;
+    private int latencyMax;
+    private int outages;
+
+    /**
+     * Time in millis from each failed check until the next check
+     */
+    private long downtime;
+
+    @Builder.Default
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    public void add(CheckRollup other) {
+        checks += other.checks;
+        failures += other.failures;
+        latencySum += other.latencySum;
+        latencyMax = Math.max(latencyMax, other.latencyMax);
+        outages += other.outages;
+        downtime += other.downtime;
+        histogram.add(other.histogram);
+    }
+}
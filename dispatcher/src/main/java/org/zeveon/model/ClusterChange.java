@@ -0,0 +1,47 @@
+package org.zeveon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.joining;
+import static org.zeveon.util.StringUtil.COLON;
+import static org.zeveon.util.StringUtil.COMMA;
+
+/**
+ * Change made on one cluster node that the others have to apply, sent as {@code type:id,id,...}
+ *
+ * @author Stanislav Vafin
+ */
+@Data
+@AllArgsConstructor
+public class ClusterChange {
+
+    private Type type;
+    private List<Long> ids;
+
+    public String toPayload() {
+        return type.name() + COLON + ids.stream()
+                .map(String::valueOf)
+                .collect(joining(COMMA));
+    }
+
+    public static ClusterChange fromPayload(String payload) {
+        var separator = payload.indexOf(COLON);
+        return new ClusterChange(
+                Type.valueOf(payload.substring(0, separator)),
+                stream(payload.substring(separator + 1).split(COMMA))
+                        .map(Long::valueOf)
+                        .toList()
+        );
+    }
+
+    public enum Type {
+        HOSTS,
+        SUBSCRIPTIONS,
+        CHAT_SETTINGS,
+        USERS
+    }
+}
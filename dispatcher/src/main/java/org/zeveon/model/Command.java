@@ -15,6 +15,7 @@ public class Command {
     public static final String REMOVE = "/remove";
     public static final String REMOVE_ALL = "/remove_all";
     public static final String STATISTIC = "/statistic";
+    public static final String SLA = "/sla";
     public static final String SETTINGS = "/settings";
     public static final String CHANGE_LANGUAGE = "/change_language";
     public static final String CHANGE_OFFSET = "/change_offset";
@@ -29,6 +30,7 @@ public class Command {
         put(REMOVE, "command.remove");
         put(REMOVE_ALL, "command.remove_all");
         put(STATISTIC, "command.statistic");
+        put(SLA, "command.sla");
         put(SETTINGS, "command.settings");
         put(CHANGE_LANGUAGE, "command.change_language");
         put(CHANGE_OFFSET, "command.change_offset");
@@ -3,6 +3,11 @@ package org.zeveon.model;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
 import static java.util.Arrays.stream;
 
 /**
@@ -20,10 +25,24 @@ public enum ConnectionType {
 
     private final boolean protocolChanged;
 
+    private static final Map<ConnectionType, List<ConnectionType>> ORDERS = new EnumMap<>(ConnectionType.class);
+
+    static {
+        stream(values()).forEach(connectionType -> ORDERS.put(connectionType, Stream.concat(
+                Stream.of(connectionType),
+                stream(values())
+                        .filter(c -> !connectionType.equals(c))
+        ).toList()));
+    }
+
     public static ConnectionType getByFields(boolean modified, boolean protocolChanged) {
-        return stream(ConnectionType.values())
-                .filter(c -> c.needAppender == modified)
-                .filter(c -> c.protocolChanged == protocolChanged)
-                .findAny().orElse(APPENDER_ST_PROTO);
+        if (modified) {
+            return protocolChanged ? APPENDER_CH_PROTO : APPENDER_ST_PROTO;
+        }
+        return protocolChanged ? NO_APPENDER_CH_PROTO : NO_APPENDER_ST_PROTO;
+    }
+
+    public static List<ConnectionType> reorder(ConnectionType connectionType) {
+        return ORDERS.get(connectionType);
     }
 }
@@ -0,0 +1,8 @@
+package org.zeveon.model;
+
+/**
+ * @author Stanislav Vafin
+ */
+public enum CurlMode {
+    NATIVE, PROCESS
+}
@@ -0,0 +1,18 @@
+package org.zeveon.model;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * @author Stanislav Vafin
+ */
+public interface HostCheckRate {
+
+    Long getHostId();
+
+    Method getMethod();
+
+    Duration getCheckRate();
+
+    ZonedDateTime getModifiedDate();
+}
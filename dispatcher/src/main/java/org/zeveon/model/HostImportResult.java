@@ -0,0 +1,18 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class HostImportResult {
+
+    private int added;
+    private int alreadyAdded;
+    private List<String> invalidUrls;
+}
@@ -0,0 +1,15 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class HostInfo {
+
+    private Long id;
+    private String url;
+}
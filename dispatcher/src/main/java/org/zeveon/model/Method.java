@@ -3,6 +3,8 @@ package org.zeveon.model;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import static java.util.Arrays.stream;
+
 /**
  * @author Stanislav Vafin
  */
@@ -10,9 +12,21 @@ import lombok.Getter;
 @AllArgsConstructor
 public enum Method {
 
-    APACHE_HTTP_CLIENT("Библиотека Apache"),
-    JAVA_HTTP_CLIENT("Библиотека Java"),
-    CURL_PROCESS("Утилита cURL");
+    APACHE_HTTP_CLIENT(1, "Библиотека Apache"),
+    JAVA_HTTP_CLIENT(2, "Библиотека Java"),
+    CURL_PROCESS(3, "Утилита cURL");
+
+    /**
+     * Stable identifier stored in compact history tables
+     */
+    private final int code;
 
     private final String description;
+
+    public static Method getByCode(int code) {
+        return stream(values())
+                .filter(m -> m.code == code)
+                .findAny()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown method code: " + code));
+    }
 }
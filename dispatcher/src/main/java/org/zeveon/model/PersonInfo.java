@@ -0,0 +1,17 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class PersonInfo {
+
+    private Long userId;
+    private String username;
+    private boolean admin;
+    private boolean superAdmin;
+}
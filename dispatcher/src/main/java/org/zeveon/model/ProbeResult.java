@@ -0,0 +1,20 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class ProbeResult {
+
+    private int responseCode;
+    private Boolean needAppender;
+    private Protocol preferredProtocol;
+    private Duration responseTime;
+    private boolean searched;
+}
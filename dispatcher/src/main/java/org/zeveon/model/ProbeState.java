@@ -0,0 +1,20 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class ProbeState {
+
+    private int responseCode;
+    private Boolean needAppender;
+    private Protocol preferredProtocol;
+    private int failures;
+    private Instant revalidateAt;
+}
@@ -0,0 +1,36 @@
+package org.zeveon.model;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Getter
+public class ProbeTarget {
+
+    private final ConnectionType connectionType;
+    private final String url;
+
+    /**
+     * Parsed {@link #url}, {@code null} if it is not a valid absolute URI
+     */
+    private final URI uri;
+
+    public ProbeTarget(ConnectionType connectionType, String url) {
+        this.connectionType = connectionType;
+        this.url = url;
+        this.uri = toUri(url);
+    }
+
+    private static URI toUri(String url) {
+        try {
+            var uri = new URI(url);
+            return uri.isAbsolute() ? uri : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.zeveon.model;
+
+import org.zeveon.util.UrlUtil;
+
+import java.util.*;
+
+import static java.util.Arrays.stream;
+import static org.zeveon.util.UrlUtil.modifyUrl;
+
+/**
+ * URL variants of a host for every preferred protocol and leading {@link ConnectionType},
+ * built once when the host is registered.
+ *
+ * @author Stanislav Vafin
+ */
+public class ProbeTargets {
+
+    private final Protocol protocol;
+
+    private final Map<ConnectionType, List<ProbeTarget>> variants;
+
+    private final Map<Protocol, Map<ConnectionType, List<ProbeTarget>>> protocolVariants = new EnumMap<>(Protocol.class);
+
+    public ProbeTargets(String hostUrl) {
+        this.protocol = UrlUtil.getProtocol(hostUrl).orElse(null);
+        this.variants = buildVariants(hostUrl, Optional.empty());
+        stream(Protocol.values()).forEach(p -> protocolVariants.put(p, buildVariants(hostUrl, Optional.of(p))));
+    }
+
+    public Optional<Protocol> getProtocol() {
+        return Optional.ofNullable(protocol);
+    }
+
+    /**
+     * Distinct URL variants starting with the given connection type
+     */
+    public List<ProbeTarget> getVariants(ConnectionType connectionType, Optional<Protocol> preferredProtocol) {
+        return preferredProtocol.map(protocolVariants::get)
+                .orElse(variants)
+                .get(connectionType);
+    }
+
+    private static Map<ConnectionType, List<ProbeTarget>> buildVariants(String hostUrl, Optional<Protocol> protocol) {
+        var targets = new EnumMap<ConnectionType, ProbeTarget>(ConnectionType.class);
+        stream(ConnectionType.values()).forEach(c -> targets.put(c, new ProbeTarget(c, modifyUrl(hostUrl, c, protocol))));
+        var result = new EnumMap<ConnectionType, List<ProbeTarget>>(ConnectionType.class);
+        targets.keySet().forEach(connectionType -> {
+            var distinct = new LinkedHashMap<String, ProbeTarget>();
+            ConnectionType.reorder(connectionType).forEach(c -> distinct.putIfAbsent(targets.get(c).getUrl(), targets.get(c)));
+            result.put(connectionType, List.copyOf(distinct.values()));
+        });
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package org.zeveon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import static org.zeveon.util.StringUtil.COLON;
+
+/**
+ * Single host × method check, sent through the queue as {@code hostId:methodCode}
+ *
+ * @author Stanislav Vafin
+ */
+@Data
+@AllArgsConstructor
+public class ProbeTask {
+
+    private Long hostId;
+    private Method method;
+
+    public String toPayload() {
+        return hostId + COLON + method.getCode();
+    }
+
+    public static ProbeTask fromPayload(String payload) {
+        var separator = payload.indexOf(COLON);
+        return new ProbeTask(
+                Long.parseLong(payload.substring(0, separator)),
+                Method.getByCode(Integer.parseInt(payload.substring(separator + 1)))
+        );
+    }
+}
@@ -0,0 +1,24 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class SlaReport {
+
+    private Long hostId;
+    private Duration window;
+    private long checks;
+    private double uptime;
+    private int outages;
+    private Duration mttr;
+    private Duration responseTimeP50;
+    private Duration responseTimeP95;
+    private Duration responseTimeP99;
+}
@@ -0,0 +1,31 @@
+package org.zeveon.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static java.util.Arrays.stream;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Getter
+@AllArgsConstructor
+public enum SlaWindow {
+
+    DAY("24h", Duration.ofDays(1)),
+    WEEK("7d", Duration.ofDays(7)),
+    MONTH("30d", Duration.ofDays(30));
+
+    private final String label;
+
+    private final Duration duration;
+
+    public static Optional<SlaWindow> getByLabel(String label) {
+        return stream(values())
+                .filter(w -> w.label.equalsIgnoreCase(label))
+                .findAny();
+    }
+}
@@ -0,0 +1,29 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class StatisticRecord {
+
+    private Long hostId;
+    private Method method;
+    private Duration responseTime;
+    private Duration responseTimeP50;
+    private Duration responseTimeP95;
+    private Duration responseTimeP99;
+    private Duration responseTimeEwma;
+    private Duration responseTimeMin;
+    private Duration responseTimeMax;
+    private int responseCode;
+    private Boolean needAppender;
+    private Protocol preferredProtocol;
+    private ZonedDateTime modifiedDate;
+}
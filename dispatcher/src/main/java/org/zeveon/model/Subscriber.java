@@ -0,0 +1,20 @@
+package org.zeveon.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * @author Stanislav Vafin
+ */
+@Data
+@Builder
+public class Subscriber {
+
+    private Long chatId;
+    private Locale locale;
+    private ZoneId zoneId;
+    private Method method;
+}
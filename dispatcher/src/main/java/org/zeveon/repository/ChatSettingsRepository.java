@@ -1,11 +1,15 @@
 package org.zeveon.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.zeveon.entity.ChatSettings;
 import org.zeveon.model.Method;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -15,4 +19,11 @@ import java.util.Set;
 public interface ChatSettingsRepository extends JpaRepository<ChatSettings, Long> {
 
     Set<ChatSettings> findChatSettingsByHostsInAndMethod(Collection<?> hosts, Method method);
+
+    @EntityGraph(attributePaths = "hosts")
+    @Query("select c from ChatSettings c")
+    List<ChatSettings> findAllWithHosts();
+
+    @EntityGraph(attributePaths = "hosts")
+    Optional<ChatSettings> findWithHostsByChatId(Long chatId);
 }
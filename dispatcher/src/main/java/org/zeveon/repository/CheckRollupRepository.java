@@ -0,0 +1,236 @@
+package org.zeveon.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.zeveon.model.CheckRollup;
+import org.zeveon.model.Method;
+import org.zeveon.util.LatencyHistogram;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Minute and hour rollups of the check history.
+ *
+ * @author Stanislav Vafin
+ */
+@Repository
+@RequiredArgsConstructor
+public class CheckRollupRepository {
+
+    private static final String LATENCY_BOUNDS = Arrays.stream(LatencyHistogram.getLowerBounds())
+            .mapToObj(String::valueOf)
+            .collect(joining(",", "{", "}"));
+
+    private static final String ROLLUP_MINUTES = """
+            WITH previous_checks AS (
+                SELECT DISTINCT ON (host_id, method) host_id, method, status NOT BETWEEN 200 AND 299 AS failed
+                FROM health.check_history
+                WHERE checked_at >= :contextFrom AND checked_at < :from
+                ORDER BY host_id, method, checked_at DESC
+            ), next_checks AS (
+                SELECT DISTINCT ON (host_id, method) host_id, method, checked_at
+                FROM health.check_history
+                WHERE checked_at >= :to AND checked_at < :contextTo
+                ORDER BY host_id, method, checked_at
+            ), history AS (
+                SELECT host_id, method, checked_at, latency_micros, status NOT BETWEEN 200 AND 299 AS failed
+                FROM health.check_history
+                WHERE checked_at >= :from AND checked_at < :to
+            ), checks AS (
+                SELECT h.host_id, h.method, date_trunc('minute', h.checked_at, 'UTC') AS bucket, h.latency_micros, h.failed,
+                       h.failed AND NOT coalesce(lag(h.failed) OVER w, p.failed, false) AS outage,
+                       CASE WHEN h.failed THEN greatest(0, round(1000 * extract(EPOCH FROM
+                           coalesce(lead(h.checked_at) OVER w, n.checked_at, now()) - h.checked_at)))
+                       END AS downtime
+                FROM history h
+                LEFT JOIN previous_checks p ON p.host_id = h.host_id AND p.method = h.method
+                LEFT JOIN next_checks n ON n.host_id = h.host_id AND n.method = h.method
+                WINDOW w AS (PARTITION BY h.host_id, h.method ORDER BY h.checked_at)
+            ), counters AS (
+                SELECT host_id, method, bucket, count(*) AS checks, count(*) FILTER (WHERE failed) AS failures,
+                       sum(latency_micros) AS latency_sum, max(latency_micros) AS latency_max,
+                       count(*) FILTER (WHERE outage) AS outages, coalesce(sum(downtime), 0) AS downtime
+                FROM checks
+                GROUP BY host_id, method, bucket
+            ), latencies AS (
+                SELECT host_id, method, bucket,
+                       (width_bucket(greatest(latency_micros, 0), '%s'::int[]) - 1)::smallint AS latency_bucket,
+                       count(*)::int AS checks
+                FROM checks
+                GROUP BY 1, 2, 3, 4
+            ), histograms AS (
+                SELECT host_id, method, bucket,
+                       array_agg(latency_bucket ORDER BY latency_bucket) AS latency_buckets,
+                       array_agg(checks ORDER BY latency_bucket) AS latency_counts
+                FROM latencies
+                GROUP BY host_id, method, bucket
+            )
+            """.formatted(LATENCY_BOUNDS);
+
+    private static final String ROLLUP_HOURS = """
+            WITH minutes AS (
+                SELECT *
+                FROM health.check_rollup_minute
+                WHERE bucket >= :from AND bucket < :to
+            ), counters AS (
+                SELECT host_id, method, date_trunc('hour', bucket, 'UTC') AS hour_bucket, sum(checks) AS checks,
+                       sum(failures) AS failures, sum(latency_sum) AS latency_sum, max(latency_max) AS latency_max,
+                       sum(outages) AS outages, sum(downtime) AS downtime
+                FROM minutes
+                GROUP BY 1, 2, 3
+            ), latencies AS (
+                SELECT m.host_id, m.method, date_trunc('hour', m.bucket, 'UTC') AS hour_bucket, l.latency_bucket,
+                       sum(l.checks)::int AS checks
+                FROM minutes m, unnest(m.latency_buckets, m.latency_counts) AS l (latency_bucket, checks)
+                GROUP BY 1, 2, 3, 4
+            ), histograms AS (
+                SELECT host_id, method, hour_bucket,
+                       array_agg(latency_bucket ORDER BY latency_bucket) AS latency_buckets,
+                       array_agg(checks ORDER BY latency_bucket) AS latency_counts
+                FROM latencies
+                GROUP BY host_id, method, hour_bucket
+            )
+            """;
+
+    private static final String INSERT_ROLLUPS = """
+            INSERT INTO health.%s (%s)
+            SELECT c.host_id, c.method, c.%s, c.checks, c.failures, c.latency_sum, c.latency_max, c.outages, c.downtime,
+                   h.latency_buckets, h.latency_counts
+            FROM counters c
+            LEFT JOIN histograms h ON h.host_id = c.host_id AND h.method = c.method AND h.%3$s = c.%3$s
+            ON CONFLICT (host_id, method, bucket) DO UPDATE SET
+                checks = excluded.checks,
+                failures = excluded.failures,
+                latency_sum = excluded.latency_sum,
+                latency_max = excluded.latency_max,
+                outages = excluded.outages,
+                downtime = excluded.downtime,
+                latency_buckets = excluded.latency_buckets,
+                latency_counts = excluded.latency_counts
+            """;
+
+    private static final String SELECT_LATEST_MINUTE = "SELECT max(bucket) FROM health.check_rollup_minute";
+
+    private static final String ROLLUP_COLUMNS = """
+            host_id, method, bucket, checks, failures, latency_sum, latency_max, outages, downtime, \
+            latency_buckets, latency_counts
+            """;
+
+    private static final String SELECT_ROLLUPS = "SELECT " + ROLLUP_COLUMNS + """
+            FROM health.%s
+            WHERE host_id IN (:hostIds) AND method = :method AND bucket >= :from AND bucket < :to
+            """;
+
+    private static final String DELETE_ROLLUPS = "DELETE FROM health.%s WHERE bucket < ?";
+
+    private static final String MINUTE_TABLE = "check_rollup_minute";
+    private static final String HOUR_TABLE = "check_rollup_hour";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public Optional<Instant> findLatestMinute() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(SELECT_LATEST_MINUTE, OffsetDateTime.class))
+                .map(OffsetDateTime::toInstant);
+    }
+
+    /**
+     * Aggregates raw history checked within [from, to) into minute rollups. The last check before from and the
+     * first check since to are looked up within context to tell outage starts and downtime at the slice edges.
+     */
+    public int rollupMinutes(Instant from, Instant to, Duration context) {
+        return namedParameterJdbcTemplate.update(ROLLUP_MINUTES + INSERT_ROLLUPS.formatted(MINUTE_TABLE, ROLLUP_COLUMNS, "bucket"),
+                new MapSqlParameterSource()
+                        .addValue("contextFrom", timestamp(from.minus(context)))
+                        .addValue("from", timestamp(from))
+                        .addValue("to", timestamp(to))
+                        .addValue("contextTo", timestamp(to.plus(context))));
+    }
+
+    /**
+     * Aggregates minute rollups within [from, to) into hour rollups
+     */
+    public int rollupHours(Instant from, Instant to) {
+        return namedParameterJdbcTemplate.update(ROLLUP_HOURS + INSERT_ROLLUPS.formatted(HOUR_TABLE, ROLLUP_COLUMNS, "hour_bucket"),
+                new MapSqlParameterSource()
+                        .addValue("from", timestamp(from))
+                        .addValue("to", timestamp(to)));
+    }
+
+    public List<CheckRollup> findMinutes(Collection<Long> hostIds, Method method, Instant from, Instant to) {
+        return find(MINUTE_TABLE, hostIds, method, from, to);
+    }
+
+    public List<CheckRollup> findHours(Collection<Long> hostIds, Method method, Instant from, Instant to) {
+        return find(HOUR_TABLE, hostIds, method, from, to);
+    }
+
+    public void deleteMinutesBefore(Instant bucket) {
+        jdbcTemplate.update(DELETE_ROLLUPS.formatted(MINUTE_TABLE), timestamp(bucket));
+    }
+
+    public void deleteHoursBefore(Instant bucket) {
+        jdbcTemplate.update(DELETE_ROLLUPS.formatted(HOUR_TABLE), timestamp(bucket));
+    }
+
+    private List<CheckRollup> find(String table, Collection<Long> hostIds, Method method, Instant from, Instant to) {
+        if (hostIds.isEmpty() || !from.isBefore(to)) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(SELECT_ROLLUPS.formatted(table), new MapSqlParameterSource()
+                .addValue("hostIds", hostIds)
+                .addValue("method", method.getCode(), Types.SMALLINT)
+                .addValue("from", timestamp(from))
+                .addValue("to", timestamp(to)), this::mapRollup);
+    }
+
+    private CheckRollup mapRollup(ResultSet rs, int rowNum) throws SQLException {
+        return CheckRollup.builder()
+                .hostId(rs.getLong("host_id"))
+                .method(Method.getByCode(rs.getShort("method")))
+                .bucket(rs.getObject("bucket", OffsetDateTime.class).toInstant())
+                .checks(rs.getInt("checks"))
+                .failures(rs.getInt("failures"))
+                .latencySum(rs.getLong("latency_sum"))
+                .latencyMax(rs.getInt("latency_max"))
+                .outages(rs.getInt("outages"))
+                .downtime(rs.getLong("downtime"))
+                .histogram(mapHistogram(rs))
+                .build();
+    }
+
+    private LatencyHistogram mapHistogram(ResultSet rs) throws SQLException {
+        var histogram = new LatencyHistogram();
+        var buckets = rs.getArray("latency_buckets");
+        var counts = rs.getArray("latency_counts");
+        if (buckets != null && counts != null) {
+            var bucketValues = (Number[]) buckets.getArray();
+            var countValues = (Number[]) counts.getArray();
+            for (int i = 0; i < bucketValues.length; i++) {
+                histogram.add(bucketValues[i].intValue(), countValues[i].intValue());
+            }
+        }
+        return histogram;
+    }
+
+    private SqlParameterValue timestamp(Instant instant) {
+        return new SqlParameterValue(Types.TIMESTAMP_WITH_TIMEZONE, instant.atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,56 @@
+package org.zeveon.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Heartbeat table of running dispatcher nodes.
+ * Timestamps come from the database clock, so clock skew between nodes does not affect liveness.
+ *
+ * @author Stanislav Vafin
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClusterNodeRepository {
+
+    private static final String UPSERT_HEARTBEAT = """
+            INSERT INTO health.cluster_node (node_id, started_at, heartbeat_at) VALUES (?, now(), now())
+            ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = excluded.heartbeat_at
+            """;
+
+    private static final String SELECT_ALIVE_NODES = """
+            SELECT node_id FROM health.cluster_node WHERE heartbeat_at >= now() - make_interval(secs => ?)
+            """;
+
+    private static final String DELETE_EXPIRED_NODES = """
+            DELETE FROM health.cluster_node WHERE heartbeat_at < now() - make_interval(secs => ?)
+            """;
+
+    private static final String DELETE_NODE = "DELETE FROM health.cluster_node WHERE node_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void saveHeartbeat(String nodeId) {
+        jdbcTemplate.update(UPSERT_HEARTBEAT, nodeId);
+    }
+
+    public List<String> findAliveNodeIds(Duration timeout) {
+        return jdbcTemplate.queryForList(SELECT_ALIVE_NODES, String.class, toSeconds(timeout));
+    }
+
+    public void deleteNodesExpiredFor(Duration expiration) {
+        jdbcTemplate.update(DELETE_EXPIRED_NODES, toSeconds(expiration));
+    }
+
+    public void deleteNode(String nodeId) {
+        jdbcTemplate.update(DELETE_NODE, nodeId);
+    }
+
+    private double toSeconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
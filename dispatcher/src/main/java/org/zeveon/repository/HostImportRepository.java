@@ -0,0 +1,97 @@
+package org.zeveon.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.zeveon.entity.Host;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Set-based host import: every statement takes the whole url or id set as a single array parameter.
+ *
+ * @author Stanislav Vafin
+ */
+@Repository
+@RequiredArgsConstructor
+public class HostImportRepository {
+
+    private static final String UPSERT_HOSTS = """
+            WITH input AS (SELECT DISTINCT unnest(?::varchar[]) AS url),
+                 inserted AS (INSERT INTO health.host (url)
+                              SELECT url FROM input
+                              ON CONFLICT (url) DO NOTHING
+                              RETURNING id, url)
+            SELECT id, url, true AS created FROM inserted
+            UNION ALL
+            SELECT h.id, h.url, false AS created FROM health.host h JOIN input i ON i.url = h.url
+            """;
+
+    private static final String SELECT_HOSTS = "SELECT id, url, false AS created FROM health.host WHERE url = ANY(?::varchar[])";
+
+    private static final String LINK_HOSTS = """
+            INSERT INTO health.chat_host (chat_id, host_id)
+            SELECT ?, unnest(?::bigint[])
+            ON CONFLICT DO NOTHING
+            RETURNING host_id
+            """;
+
+    private static final String VARCHAR = "varchar";
+    private static final String BIGINT = "bigint";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts missing hosts and returns all hosts of the given urls
+     */
+    public List<ImportedHost> upsertHosts(Collection<String> urls) {
+        var hosts = new ArrayList<>(jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(UPSERT_HOSTS);
+            ps.setArray(1, con.createArrayOf(VARCHAR, urls.toArray()));
+            return ps;
+        }, this::mapHost));
+        if (hosts.size() < urls.size()) {
+            // hosts committed by a concurrent import after the statement snapshot are skipped by both branches
+            var found = new HashSet<String>();
+            hosts.forEach(h -> found.add(h.getHost().getUrl()));
+            var missing = urls.stream().filter(u -> !found.contains(u)).toArray();
+            hosts.addAll(jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement(SELECT_HOSTS);
+                ps.setArray(1, con.createArrayOf(VARCHAR, missing));
+                return ps;
+            }, this::mapHost));
+        }
+        return hosts;
+    }
+
+    /**
+     * Links hosts to the chat and returns ids of hosts that were not linked before
+     */
+    public Set<Long> linkHosts(Long chatId, Collection<Long> hostIds) {
+        return new HashSet<>(jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(LINK_HOSTS);
+            ps.setLong(1, chatId);
+            ps.setArray(2, con.createArrayOf(BIGINT, hostIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+    }
+
+    private ImportedHost mapHost(ResultSet rs, int rowNum) throws SQLException {
+        return new ImportedHost(Host.builder()
+                .id(rs.getLong("id"))
+                .url(rs.getString("url"))
+                .build(), rs.getBoolean("created"));
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class ImportedHost {
+
+        private final Host host;
+
+        private final boolean created;
+    }
+}
@@ -1,9 +1,14 @@
 package org.zeveon.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.zeveon.entity.Host;
+import org.zeveon.model.HostCheckRate;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -12,5 +17,31 @@ import java.util.Set;
 @Repository
 public interface HostRepository extends JpaRepository<Host, Long> {
 
+    String HOST_CHECK_RATE_QUERY = """
+            select h.id as hostId, c.method as method, c.checkRate as checkRate, s.modifiedDate as modifiedDate
+            from ChatSettings c
+            join c.hosts h
+            left join Statistic s on s.id.host = h and s.id.method = c.method
+            """;
+
     Set<Host> findByChatSettingsChatId(Long chatId);
+
+    @EntityGraph(attributePaths = "statistic")
+    Set<Host> findWithStatisticByChatSettingsChatId(Long chatId);
+
+    @EntityGraph(attributePaths = "statistic")
+    @Query("select h from Host h")
+    List<Host> findAllWithStatistic();
+
+    @Query("select h.id from Host h")
+    Set<Long> findAllIds();
+
+    @EntityGraph(attributePaths = "statistic")
+    List<Host> findWithStatisticByIdIn(Collection<Long> ids);
+
+    @Query(HOST_CHECK_RATE_QUERY)
+    List<HostCheckRate> findAllCheckRates();
+
+    @Query(HOST_CHECK_RATE_QUERY + "where h.id in :hostIds")
+    List<HostCheckRate> findCheckRatesByHostIds(Collection<Long> hostIds);
 }
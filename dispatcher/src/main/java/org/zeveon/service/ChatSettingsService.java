@@ -23,6 +23,8 @@ public interface ChatSettingsService {
 
     Optional<ChatSettings> getChatSettings(Long chatId);
 
+    Optional<ChatSettings> getChatSettingsWithHosts(Long chatId);
+
     Set<ChatSettings> findChatSettingsByHostAndMethod(Host host, Method method);
 
     Locale getLocale(Long chatId);
@@ -4,6 +4,7 @@ import org.zeveon.model.BotInfo;
 import org.zeveon.model.HealthInfo;
 import org.zeveon.model.Method;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
 
 /**
@@ -11,5 +12,5 @@ import java.util.function.BiConsumer;
  */
 public interface HealthCheckService {
 
-    void checkHealth(Long hostId, BotInfo botInfo, BiConsumer<Method, HealthInfo> reportStatusMethod);
+    CompletableFuture<Void> checkHealth(Long hostId, Method method, BotInfo botInfo, BiConsumer<Method, HealthInfo> reportStatusMethod);
 }
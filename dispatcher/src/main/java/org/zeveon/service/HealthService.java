@@ -1,6 +1,8 @@
 package org.zeveon.service;
 
 import org.zeveon.entity.Host;
+import org.zeveon.model.HostImportResult;
+import org.zeveon.model.HostInfo;
 
 import java.util.List;
 import java.util.Set;
@@ -10,11 +12,11 @@ import java.util.Set;
  */
 public interface HealthService {
 
-    void saveHosts(Set<String> hosts, Long chatId);
+    HostImportResult saveHosts(Set<String> hosts, Long chatId);
 
     List<Host> getAllHosts();
 
-    Set<Host> getHosts(Long chatId);
+    Set<HostInfo> getHosts(Long chatId);
 
     void removeHosts(Set<Long> hostIds, Long chatId);
 
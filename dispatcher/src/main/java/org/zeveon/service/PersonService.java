@@ -1,6 +1,7 @@
 package org.zeveon.service;
 
 import org.zeveon.entity.Person;
+import org.zeveon.model.PersonInfo;
 
 import java.util.Optional;
 
@@ -9,9 +10,9 @@ import java.util.Optional;
  */
 public interface PersonService {
 
-    Optional<Person> findByUserId(Long userId);
+    Optional<PersonInfo> findByUserId(Long userId);
 
-    Person save(Person person);
+    PersonInfo save(Person person);
 
     Optional<Person> updateAdminRights(String username, boolean isAdmin);
 }
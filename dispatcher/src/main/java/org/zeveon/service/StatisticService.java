@@ -1,7 +1,10 @@
 package org.zeveon.service;
 
 import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.zeveon.model.SlaReport;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -10,4 +13,6 @@ import java.util.Optional;
 public interface StatisticService {
 
     Optional<InputFile> generateStatistic(Long chatId);
+
+    List<SlaReport> getSlaReports(Long chatId, Duration window);
 }
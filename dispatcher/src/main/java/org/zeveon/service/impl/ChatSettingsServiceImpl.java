@@ -1,11 +1,16 @@
 package org.zeveon.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.zeveon.data.SubscriptionIndex;
 import org.zeveon.entity.ChatSettings;
 import org.zeveon.entity.Host;
+import org.zeveon.event.ChatSettingsChangedEvent;
+import org.zeveon.event.SubscriptionChangedEvent;
 import org.zeveon.model.Method;
+import org.zeveon.model.Subscriber;
 import org.zeveon.repository.ChatSettingsRepository;
 import org.zeveon.service.ChatSettingsService;
 
@@ -16,6 +21,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toSet;
 
 /**
  * @author Stanislav Vafin
@@ -26,6 +32,10 @@ public class ChatSettingsServiceImpl implements ChatSettingsService {
 
     private final ChatSettingsRepository chatSettingsRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final SubscriptionIndex subscriptionIndex;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public ChatSettings save(Long chatId) {
@@ -37,7 +47,9 @@ public class ChatSettingsServiceImpl implements ChatSettingsService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public ChatSettings save(ChatSettings chatSettings) {
-        return chatSettingsRepository.save(chatSettings);
+        var savedChatSettings = chatSettingsRepository.save(chatSettings);
+        eventPublisher.publishEvent(new ChatSettingsChangedEvent(savedChatSettings.getChatId()));
+        return savedChatSettings;
     }
 
     @Override
@@ -52,19 +64,30 @@ public class ChatSettingsServiceImpl implements ChatSettingsService {
         return chatSettingsRepository.findById(chatId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ChatSettings> getChatSettingsWithHosts(Long chatId) {
+        return chatSettingsRepository.findWithHostsByChatId(chatId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Set<ChatSettings> findChatSettingsByHostAndMethod(Host host, Method method) {
         return chatSettingsRepository.findChatSettingsByHostsInAndMethod(singleton(host), method);
     }
 
+    /**
+     * Not cached: subscribed chats are served from the in-memory index, which is updated after commit
+     */
     @Override
     @Transactional(readOnly = true)
     public Locale getLocale(Long chatId) {
-        return getChatSettings(chatId)
-                .map(ChatSettings::getLocale)
-                .map(Locale::forLanguageTag)
-                .orElse(Locale.forLanguageTag(ChatSettings.builder().build().getLocale()));
+        return subscriptionIndex.getSubscriber(chatId)
+                .map(Subscriber::getLocale)
+                .orElseGet(() -> getChatSettings(chatId)
+                        .map(ChatSettings::getLocale)
+                        .map(Locale::forLanguageTag)
+                        .orElse(Locale.forLanguageTag(ChatSettings.builder().build().getLocale())));
     }
 
     @Override
@@ -72,7 +95,10 @@ public class ChatSettingsServiceImpl implements ChatSettingsService {
     public void updateLocale(Long chatId, String locale) {
         chatSettingsRepository.findById(chatId)
                 .ifPresentOrElse(
-                        c -> c.setLocale(locale),
+                        c -> {
+                            c.setLocale(locale);
+                            eventPublisher.publishEvent(new ChatSettingsChangedEvent(chatId));
+                        },
                         () -> save(ChatSettings.builder()
                                 .chatId(chatId)
                                 .locale(locale)
@@ -85,7 +111,10 @@ public class ChatSettingsServiceImpl implements ChatSettingsService {
     public void updateZoneId(Long chatId, String zoneId) {
         chatSettingsRepository.findById(chatId)
                 .ifPresentOrElse(
-                        c -> c.setZoneId(zoneId),
+                        c -> {
+                            c.setZoneId(zoneId);
+                            eventPublisher.publishEvent(new ChatSettingsChangedEvent(chatId));
+                        },
                         () -> save(ChatSettings.builder()
                                 .chatId(chatId)
                                 .zoneId(zoneId)
@@ -98,7 +127,11 @@ public class ChatSettingsServiceImpl implements ChatSettingsService {
     public void updateMethod(Long chatId, Method method) {
         chatSettingsRepository.findById(chatId)
                 .ifPresentOrElse(
-                        c -> c.setMethod(method),
+                        c -> {
+                            c.setMethod(method);
+                            publishSubscriptionChanged(c);
+                            eventPublisher.publishEvent(new ChatSettingsChangedEvent(chatId));
+                        },
                         () -> save(ChatSettings.builder()
                                 .chatId(chatId)
                                 .method(method)
@@ -111,11 +144,20 @@ public class ChatSettingsServiceImpl implements ChatSettingsService {
     public void updateCheckRate(Long chatId, Duration rate) {
         chatSettingsRepository.findById(chatId)
                 .ifPresentOrElse(
-                        c -> c.setCheckRate(rate),
+                        c -> {
+                            c.setCheckRate(rate);
+                            publishSubscriptionChanged(c);
+                        },
                         () -> save(ChatSettings.builder()
                                 .chatId(chatId)
                                 .checkRate(rate)
                                 .build())
                 );
     }
+
+    private void publishSubscriptionChanged(ChatSettings chatSettings) {
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(chatSettings.getHosts().stream()
+                .map(Host::getId)
+                .collect(toSet())));
+    }
 }
@@ -1,227 +1,236 @@
 package org.zeveon.service.impl;
 
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.tuple.Pair;
-import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
 import org.glassfish.grizzly.http.util.Header;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.zeveon.data.Data;
-import org.zeveon.entity.ChatSettings;
-import org.zeveon.entity.Host;
-import org.zeveon.entity.Statistic;
-import org.zeveon.entity.StatisticId;
+import org.zeveon.component.CheckHistoryWriter;
+import org.zeveon.component.CurlClient;
+import org.zeveon.component.HealthCheckMetrics;
+import org.zeveon.component.StatisticWriter;
+import org.zeveon.data.HostRegistry;
 import org.zeveon.model.*;
-import org.zeveon.repository.HostRepository;
 import org.zeveon.service.HealthCheckService;
 import org.zeveon.util.CurlRequest;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
-import java.util.stream.Stream;
+import java.util.function.Function;
 
-import static java.util.Arrays.stream;
-import static java.util.Optional.empty;
-import static java.util.Optional.of;
-import static org.apache.commons.lang3.StringUtils.LF;
-import static org.apache.commons.lang3.StringUtils.SPACE;
-import static org.zeveon.model.Method.*;
-import static org.zeveon.model.Protocol.HTTP;
-import static org.zeveon.util.Functions.distinctByKey;
+import static java.util.Optional.*;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static org.zeveon.util.Functions.onCancel;
 
 /**
  * @author Stanislav Vafin
  */
 @Slf4j
 @Service
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class HealthCheckServiceImpl implements HealthCheckService {
 
-    private static final int MILLIS_IN_SECOND = 1000;
-    private static final String HEALTH_TEMPLATE = "%s | %s";
-    private static final String URL_APPENDER = "/robots.txt";
-    private static final String PROTOCOL_REGEX = "^https?";
-    private static final String EXCLUDE_RIGHT_SIDE_PATTERN = "(%s).*";
-    private static final String $ = "$";
+    private static final String HEALTH_TEMPLATE = "{} | {}";
+    private static final String INVALID_URL_TEMPLATE = "Invalid URL: {}";
+    private static final double P50 = 0.50;
+    private static final double P95 = 0.95;
+    private static final double P99 = 0.99;
+    private static final int MAX_BACKOFF_SHIFT = 16;
+    private static final long NANOS_IN_MICRO = 1000;
 
-    private final HostRepository hostRepository;
+    private final CloseableHttpClient apacheHttpClient;
 
-    @Transactional(rollbackFor = Exception.class)
-    public void checkHealth(Long hostId, BotInfo botInfo, BiConsumer<Method, HealthInfo> reportStatusMethod) {
-        var host = hostRepository.findById(hostId)
+    private final HttpClient javaHttpClient;
+
+    private final CurlClient curlClient;
+
+    private final HostRegistry hostRegistry;
+
+    private final StatisticWriter statisticWriter;
+
+    private final CheckHistoryWriter checkHistoryWriter;
+
+    private final Executor healthCheckExecutor;
+
+    private final HealthCheckMetrics healthCheckMetrics;
+
+    @Value("${health-check.strategy.race}")
+    private boolean race;
+
+    @Value("${health-check.strategy.revalidation-base}")
+    private Duration revalidationBase;
+
+    @Value("${health-check.strategy.revalidation-max}")
+    private Duration revalidationMax;
+
+    @Override
+    public CompletableFuture<Void> checkHealth(Long hostId, Method method, BotInfo botInfo, BiConsumer<Method, HealthInfo> reportStatusMethod) {
+        var probeTargets = hostRegistry.getProbeTargets(hostId)
                 .orElseThrow(() -> new RuntimeException("This host already removed"));
-        host.getChatSettings().stream()
-                .filter(distinctByKey(ChatSettings::getMethod))
-                .forEach(chatSettings -> {
-                    var method = chatSettings.getMethod();
-                    var durationsRequestCountPair = Data.getRequestCount().get(host);
-                    var botUsername = botInfo.getBotUsername();
-                    var startTime = LocalDateTime.now();
-                    var connectionTimeout = botInfo.getHealthCheckConnectionTimeout();
-                    var responseCode = 0;
-                    var responseCodeChanged = false;
-                    var statistic = findHostStatisticByMethod(host, method);
-                    var statisticExists = statistic.isPresent();
-                    var needAppender = statistic.map(Statistic::getNeedAppender);
-                    var protocol = statistic.map(Statistic::getPreferredProtocol);
-                    var connectionType = ConnectionType.getByFields(
-                            needAppender.orElse(true),
-                            protocol.isPresent());
-                    switch (method) {
-                        case APACHE_HTTP_CLIENT -> {
-                            for (var entry : reorder(connectionType)) {
-                                responseCode = checkHealthApache(
-                                        modifyUrl(host, entry, protocol),
-                                        botUsername,
-                                        connectionTimeout);
-                                if (isModified(needAppender, protocol) || responseCodeSuccessful(responseCode)) {
-                                    needAppender = of(entry.isNeedAppender());
-                                    protocol = protocol.or(() -> getProtocol(host.getUrl()));
-                                    break;
-                                }
-                            }
-                            responseCodeChanged = checkResponseCodeChanged(statistic, responseCode);
-                            saveStatistic(
-                                    host,
-                                    APACHE_HTTP_CLIENT,
-                                    durationsRequestCountPair,
-                                    startTime,
-                                    responseCode,
-                                    needAppender,
-                                    protocol
-                            );
-                        }
-                        case JAVA_HTTP_CLIENT -> {
-                            for (var entry : reorder(connectionType)) {
-                                responseCode = checkHealthJava(
-                                        modifyUrl(host, entry, protocol),
-                                        botUsername,
-                                        connectionTimeout);
-                                if (isModified(needAppender, protocol) || responseCodeSuccessful(responseCode)) {
-                                    needAppender = of(entry.isNeedAppender());
-                                    protocol = protocol.or(() -> getProtocol(host.getUrl()));
-                                    break;
-                                }
-                            }
-                            responseCodeChanged = checkResponseCodeChanged(statistic, responseCode);
-                            saveStatistic(
-                                    host,
-                                    JAVA_HTTP_CLIENT,
-                                    durationsRequestCountPair,
-                                    startTime,
-                                    responseCode,
-                                    needAppender,
-                                    protocol
-                            );
-                        }
-                        case CURL_PROCESS -> {
-                            for (var entry : reorder(connectionType)) {
-                                responseCode = checkHealthCurl(
-                                        modifyUrl(host, entry, protocol),
-                                        botUsername,
-                                        connectionTimeout);
-                                if (isModified(needAppender, protocol) || responseCodeSuccessful(responseCode)) {
-                                    needAppender = of(entry.isNeedAppender());
-                                    protocol = protocol.or(() -> getProtocol(host.getUrl()));
-                                    break;
-                                }
-                            }
-                            responseCodeChanged = checkResponseCodeChanged(statistic, responseCode);
-                            saveStatistic(
-                                    host,
-                                    CURL_PROCESS,
-                                    durationsRequestCountPair,
-                                    startTime,
-                                    responseCode,
-                                    needAppender,
-                                    protocol
-                            );
-                        }
-                    }
-                    if (responseCodeChanged || !statisticExists) {
-                        reportStatusMethod.accept(method, buildHealthInfo(responseCode, statisticExists, responseCodeChanged));
-                    }
+        return probe(hostId, probeTargets, method, botInfo)
+                .thenAccept(probeResult -> saveResult(hostId, method, probeResult, reportStatusMethod));
+    }
+
+    private CompletableFuture<ProbeResult> probe(Long hostId, ProbeTargets probeTargets, Method method, BotInfo botInfo) {
+        var startTime = LocalDateTime.now();
+        var probeState = hostRegistry.getProbeState(hostId, method);
+        var needAppender = probeState.map(ProbeState::getNeedAppender);
+        var protocol = probeState.map(ProbeState::getPreferredProtocol);
+        var connectionType = ConnectionType.getByFields(
+                needAppender.orElse(true),
+                protocol.isPresent());
+        var variants = probeTargets.getVariants(connectionType, protocol);
+        var fallback = isModified(needAppender, protocol) ? 0 : variants.size() - 1;
+        var search = needSearch(probeState);
+        var probeVariants = search ? variants : List.of(variants.get(fallback));
+        var probeFallback = search ? fallback : 0;
+        Function<ProbeTarget, CompletableFuture<Integer>> request = target -> {
+            healthCheckMetrics.recordAttempt(method, target.getConnectionType());
+            return request(method, target, botInfo);
+        };
+        var result = search && race && variants.size() > 1
+                ? race(probeTargets, probeVariants, probeFallback, needAppender, protocol, request)
+                : probe(probeTargets, probeVariants.iterator(), new ArrayList<>(), probeFallback, needAppender, protocol, request);
+        return result.thenApply(builder -> builder
+                        .searched(search)
+                        .responseTime(Duration.between(startTime, LocalDateTime.now()))
+                        .build())
+                .thenApply(probeResult -> {
+                    healthCheckMetrics.recordProbe(method, probeResult.getResponseTime());
+                    healthCheckMetrics.recordOutcome(method, probeResult.getResponseCode());
+                    return probeResult;
                 });
     }
 
-    private List<ConnectionType> reorder(ConnectionType connectionType) {
-        return Stream.concat(
-                Stream.of(connectionType),
-                stream(ConnectionType.values())
-                        .filter(c -> !connectionType.equals(c))
-        ).toList();
+    private CompletableFuture<ProbeResult.ProbeResultBuilder> probe(
+            ProbeTargets probeTargets,
+            Iterator<ProbeTarget> variants,
+            List<Integer> responseCodes,
+            int fallback,
+            Optional<Boolean> needAppender,
+            Optional<Protocol> protocol,
+            Function<ProbeTarget, CompletableFuture<Integer>> request
+    ) {
+        var variant = variants.next();
+        return request.apply(variant).thenCompose(responseCode -> {
+            responseCodes.add(responseCode);
+            if (responseCodeSuccessful(responseCode)) {
+                return completedFuture(buildProbeResult(responseCode, variant.getConnectionType(), probeTargets, protocol));
+            }
+            return variants.hasNext()
+                    ? probe(probeTargets, variants, responseCodes, fallback, needAppender, protocol, request)
+                    : completedFuture(buildProbeResult(responseCodes.get(fallback), needAppender, protocol));
+        });
     }
 
-    private boolean isModified(Optional<Boolean> needAppenderOpt, Optional<Protocol> protocolOpt) {
-        return needAppenderOpt.isPresent() || protocolOpt.isPresent();
+    private CompletableFuture<ProbeResult.ProbeResultBuilder> race(
+            ProbeTargets probeTargets,
+            List<ProbeTarget> variants,
+            int fallback,
+            Optional<Boolean> needAppender,
+            Optional<Protocol> protocol,
+            Function<ProbeTarget, CompletableFuture<Integer>> request
+    ) {
+        var result = new CompletableFuture<ProbeResult.ProbeResultBuilder>();
+        var requests = variants.stream()
+                .map(request)
+                .toList();
+        var attempts = new ArrayList<CompletableFuture<Integer>>(variants.size());
+        for (int i = 0; i < variants.size(); i++) {
+            var variant = variants.get(i);
+            attempts.add(requests.get(i)
+                    .exceptionally(e -> 0)
+                    .thenApply(responseCode -> {
+                        if (responseCodeSuccessful(responseCode)) {
+                            result.complete(buildProbeResult(responseCode, variant.getConnectionType(), probeTargets, protocol));
+                        }
+                        return responseCode;
+                    }));
+        }
+        allOf(attempts.toArray(CompletableFuture[]::new)).whenComplete((r, throwable) -> {
+            if (!result.isDone()) {
+                result.complete(buildProbeResult(attempts.get(fallback).join(), needAppender, protocol));
+            }
+        });
+        // the request futures themselves are cancelled, so the losing requests are aborted rather than left running
+        result.whenComplete((r, throwable) -> requests.forEach(a -> a.cancel(true)));
+        return result;
     }
 
-    private Optional<Protocol> getProtocol(String url) {
-        return hasProtocol(url)
-                ? of(Protocol.valueOf(url.replaceAll(EXCLUDE_RIGHT_SIDE_PATTERN.formatted(PROTOCOL_REGEX), group(1)).toUpperCase()))
-                : empty();
+    private boolean needSearch(Optional<ProbeState> probeState) {
+        return probeState
+                .filter(s -> !responseCodeSuccessful(s.getResponseCode()))
+                .map(s -> s.getRevalidateAt() == null || !Instant.now().isBefore(s.getRevalidateAt()))
+                .orElse(probeState.isEmpty());
     }
 
-    @SuppressWarnings("SameParameterValue")
-    private String group(Integer group) {
-        return $ + group;
+    private CompletableFuture<Integer> request(Method method, ProbeTarget target, BotInfo botInfo) {
+        var botUsername = botInfo.getBotUsername();
+        var connectionTimeout = botInfo.getHealthCheckConnectionTimeout();
+        return switch (method) {
+            case APACHE_HTTP_CLIENT -> checkHealthApache(target);
+            case JAVA_HTTP_CLIENT -> checkHealthJava(target, botUsername, connectionTimeout);
+            case CURL_PROCESS -> checkHealthCurl(target, botUsername, connectionTimeout);
+        };
     }
 
-    private String modifyUrl(Host host, ConnectionType connectionType, Optional<Protocol> protocol) {
-        var modifiedProtocolUrl = protocol
-                .filter(p -> hasProtocol(host.getUrl()))
-                .map(p -> host.getUrl().replaceAll(PROTOCOL_REGEX, p.name().toLowerCase()))
-                .orElse(host.getUrl());
-        return connectionType.isNeedAppender()
-                ? modifiedProtocolUrl.concat(URL_APPENDER)
-                : modifiedProtocolUrl;
+    private void saveResult(Long hostId, Method method, ProbeResult probeResult, BiConsumer<Method, HealthInfo> reportStatusMethod) {
+        var responseCode = probeResult.getResponseCode();
+        var probeState = hostRegistry.getProbeState(hostId, method);
+        var healthInfo = buildHealthInfo(
+                responseCode,
+                probeState.isPresent(),
+                checkResponseCodeChanged(probeState, responseCode));
+        saveStatistic(hostId, method, probeState, probeResult);
+        if (healthInfo.isResponseCodeChanged() || !healthInfo.isStatisticExists()) {
+            reportStatusMethod.accept(method, healthInfo);
+        }
     }
 
-    private boolean hasProtocol(String url) {
-        return url.startsWith(HTTP.name().toLowerCase());
+    private boolean isModified(Optional<Boolean> needAppenderOpt, Optional<Protocol> protocolOpt) {
+        return needAppenderOpt.isPresent() || protocolOpt.isPresent();
     }
 
     private boolean responseCodeSuccessful(int responseCode) {
         return responseCode != 0 && HttpStatus.valueOf(responseCode).is2xxSuccessful();
     }
 
-    private boolean checkResponseCodeChanged(Optional<Statistic> statistic, int currentResponseCode) {
-        return statistic
+    private boolean checkResponseCodeChanged(Optional<ProbeState> probeState, int currentResponseCode) {
+        return probeState
                 .map(s -> s.getResponseCode() != currentResponseCode)
                 .orElse(true);
     }
 
-    private Optional<Statistic> findHostStatisticByMethod(Host host, Method method) {
-        return host.getStatistic().stream()
-                .filter(s -> s.getId().getMethod().equals(method))
-                .findAny();
+    private CompletableFuture<Integer> checkHealthApache(ProbeTarget target) {
+        if (target.getUri() == null) {
+            log.debug(INVALID_URL_TEMPLATE, target.getUrl());
+            return completedFuture(0);
+        }
+        var request = new HttpGet(target.getUri());
+        return onCancel(supplyAsync(() -> executeApache(target, request), healthCheckExecutor), request::abort);
     }
 
-    private int checkHealthApache(String url, String botUsername, Integer connectionTimeout) {
-        try (var httpClient = HttpClientBuilder.create()
-                .setDefaultRequestConfig(RequestConfig.custom()
-                        .setConnectTimeout(connectionTimeout * MILLIS_IN_SECOND)
-                        .build())
-                .setUserAgent(botUsername)
-                .build()) {
-            var request = new HttpGet(url);
-            var response = httpClient.execute(request);
+    private int executeApache(ProbeTarget target, HttpGet request) {
+        try (var response = apacheHttpClient.execute(request)) {
             int responseCode = response.getStatusLine().getStatusCode();
-            log.debug(HEALTH_TEMPLATE.formatted(url, responseCode));
+            EntityUtils.consume(response.getEntity());
+            log.debug(HEALTH_TEMPLATE, target.getUrl(), responseCode);
             return responseCode;
         } catch (IOException e) {
             log.debug(e.getMessage());
@@ -229,127 +238,116 @@ public class HealthCheckServiceImpl implements HealthCheckService {
         }
     }
 
-    private int checkHealthJava(String url, String botUsername, Integer connectionTimeout) {
-        var httpClient = HttpClient.newBuilder()
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .build();
+    private CompletableFuture<Integer> checkHealthJava(ProbeTarget target, String botUsername, Integer connectionTimeout) {
+        if (target.getUri() == null) {
+            log.debug(INVALID_URL_TEMPLATE, target.getUrl());
+            return completedFuture(0);
+        }
         var request = HttpRequest.newBuilder()
-                .header(Header.UserAgent.name(), botUsername)
-                .uri(URI.create(url))
+                .header(Header.UserAgent.toString(), botUsername)
+                .uri(target.getUri())
                 .timeout(Duration.ofSeconds(connectionTimeout))
                 .GET().build();
-        try {
-            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            int responseCode = response.statusCode();
-            log.debug(HEALTH_TEMPLATE.formatted(url, responseCode));
-            return responseCode;
-        } catch (IOException | InterruptedException e) {
-            log.debug(e.getMessage());
-            return 0;
-        }
+        var exchange = javaHttpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        return onCancel(exchange
+                .thenApply(response -> {
+                    int responseCode = response.statusCode();
+                    log.debug(HEALTH_TEMPLATE, target.getUrl(), responseCode);
+                    return responseCode;
+                })
+                .exceptionally(e -> {
+                    log.debug(e.getMessage());
+                    return 0;
+                }), () -> exchange.cancel(true));
     }
 
-    private int checkHealthCurl(String url, String botUsername, Integer connectionTimeout) {
-        try {
-            var process = Runtime.getRuntime()
-                    .exec(CurlRequest.builder(url)
-                            .head()
-                            .location()
-                            .silent()
-                            .connectTimeout(connectionTimeout)
-                            .header(Header.UserAgent.name(), botUsername)
-                            .build()
-                            .getCommand());
-            var reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            var output = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.contains(HTTP.name())) {
-                    output.append(line).append(LF);
-                }
-            }
-            int responseCode = stream(output.toString().split(LF))
-                    .reduce((a, b) -> b)
-                    .filter(r -> !r.isEmpty())
-                    .map(r -> r.split(SPACE)[1])
-                    .map(Integer::parseInt)
-                    .orElse(0);
-            log.debug(HEALTH_TEMPLATE.formatted(url, responseCode));
-            return responseCode;
-        } catch (IOException e) {
-            log.debug(e.getMessage());
-            return 0;
-        }
+    private CompletableFuture<Integer> checkHealthCurl(ProbeTarget target, String botUsername, Integer connectionTimeout) {
+        var builder = target.getUri() != null
+                ? CurlRequest.builder(target.getUri())
+                : CurlRequest.builder(target.getUrl());
+        var execution = curlClient.execute(builder
+                .head()
+                .location()
+                .silent()
+                .connectTimeout(connectionTimeout)
+                .header(Header.UserAgent.toString(), botUsername)
+                .build());
+        return onCancel(execution
+                .thenApply(responseCode -> {
+                    log.debug(HEALTH_TEMPLATE, target.getUrl(), responseCode);
+                    return responseCode;
+                }), () -> execution.cancel(true));
     }
 
-    private void saveStatistic(
-            Host host,
-            Method method,
-            Pair<List<Duration>, Integer> durationsRequestCountPair,
-            LocalDateTime startTime,
-            int responseCode,
-            Optional<Boolean> needAppender,
-            Optional<Protocol> protocol
-    ) {
-        var durations = durationsRequestCountPair.getLeft();
-        durations.add(Duration.between(startTime, LocalDateTime.now()));
-        var count = durationsRequestCountPair.getRight();
-        final var newCount = ++count;
-        var statistic = host.getStatistic();
-        statistic.stream()
-                .filter(s -> s.getId().equals(buildStatisticId(host, method)))
-                .findAny()
-                .ifPresentOrElse(
-                        s -> updateFields(s, responseCode, durations, newCount, needAppender, protocol),
-                        () -> statistic.add(buildStatistic(host, method, responseCode, durations, newCount, needAppender, protocol))
-                );
-        Data.getRequestCount().put(host, Pair.of(durations, newCount));
+    private void saveStatistic(Long hostId, Method method, Optional<ProbeState> probeState, ProbeResult probeResult) {
+        var accumulator = hostRegistry.getAccumulator(hostId, method);
+        accumulator.add(probeResult.getResponseTime());
+        var failed = !responseCodeSuccessful(probeResult.getResponseCode());
+        var failures = failed
+                ? probeState.map(ProbeState::getFailures).orElse(0) + (probeResult.isSearched() ? 1 : 0)
+                : 0;
+        var revalidateAt = failed && probeResult.isSearched()
+                ? Instant.now().plus(getRevalidationDelay(failures))
+                : probeState.filter(s -> failed).map(ProbeState::getRevalidateAt).orElse(null);
+        hostRegistry.putProbeState(hostId, method, ProbeState.builder()
+                .responseCode(probeResult.getResponseCode())
+                .failures(failures)
+                .revalidateAt(revalidateAt)
+                .needAppender(ofNullable(probeResult.getNeedAppender())
+                        .orElse(probeState.map(ProbeState::getNeedAppender).orElse(null)))
+                .preferredProtocol(ofNullable(probeResult.getPreferredProtocol())
+                        .orElse(probeState.map(ProbeState::getPreferredProtocol).orElse(null)))
+                .build());
+        statisticWriter.write(StatisticRecord.builder()
+                .hostId(hostId)
+                .method(method)
+                .responseTime(accumulator.getMean())
+                .responseTimeP50(accumulator.getPercentile(P50))
+                .responseTimeP95(accumulator.getPercentile(P95))
+                .responseTimeP99(accumulator.getPercentile(P99))
+                .responseTimeEwma(accumulator.getEwma())
+                .responseTimeMin(accumulator.getMin())
+                .responseTimeMax(accumulator.getMax())
+                .responseCode(probeResult.getResponseCode())
+                .needAppender(probeResult.getNeedAppender())
+                .preferredProtocol(probeResult.getPreferredProtocol())
+                .modifiedDate(ZonedDateTime.now())
+                .build());
+        checkHistoryWriter.write(CheckHistoryRecord.builder()
+                .hostId(hostId)
+                .method(method)
+                .checkedAt(Instant.now())
+                .latencyMicros((int) Math.min(probeResult.getResponseTime().toNanos() / NANOS_IN_MICRO, Integer.MAX_VALUE))
+                .status(probeResult.getResponseCode())
+                .build());
     }
 
-    private Statistic buildStatistic(
-            Host host,
-            Method method,
+    private Duration getRevalidationDelay(int failures) {
+        var delay = revalidationBase.multipliedBy(1L << Math.min(failures - 1, MAX_BACKOFF_SHIFT));
+        return delay.compareTo(revalidationMax) < 0 ? delay : revalidationMax;
+    }
+
+    private ProbeResult.ProbeResultBuilder buildProbeResult(
             int responseCode,
-            List<Duration> durations,
-            Integer newCount,
-            Optional<Boolean> needAppender,
+            ConnectionType connectionType,
+            ProbeTargets probeTargets,
             Optional<Protocol> protocol
     ) {
-        var builder = Statistic.builder()
-                .id(buildStatisticId(host, method))
-                .responseTime(calculateAverage(durations, newCount))
-                .responseCode(responseCode);
-        needAppender.ifPresent(builder::needAppender);
-        protocol.ifPresent(builder::preferredProtocol);
-        return builder.build();
+        return buildProbeResult(
+                responseCode,
+                of(connectionType.isNeedAppender()),
+                protocol.or(probeTargets::getProtocol));
     }
 
-    private StatisticId buildStatisticId(Host host, Method method) {
-        return StatisticId.builder()
-                .host(host)
-                .method(method)
-                .build();
-    }
-
-    private void updateFields(
-            Statistic statistic,
+    private ProbeResult.ProbeResultBuilder buildProbeResult(
             int responseCode,
-            List<Duration> durations,
-            Integer newCount,
             Optional<Boolean> needAppender,
             Optional<Protocol> protocol
     ) {
-        statistic.setResponseTime(calculateAverage(durations, newCount));
-        statistic.setResponseCode(responseCode);
-        needAppender.ifPresent(statistic::setNeedAppender);
-        protocol.ifPresent(statistic::setPreferredProtocol);
-    }
-
-    private Duration calculateAverage(List<Duration> durations, Integer newCount) {
-        return durations.stream()
-                .reduce(Duration::plus)
-                .map(r -> r.dividedBy(newCount))
-                .orElse(Duration.ZERO);
+        return ProbeResult.builder()
+                .responseCode(responseCode)
+                .needAppender(needAppender.orElse(null))
+                .preferredProtocol(protocol.orElse(null));
     }
 
     private HealthInfo buildHealthInfo(int responseCode, boolean statisticExists, boolean responseCodeChanged) {
@@ -3,22 +3,31 @@ package org.zeveon.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.zeveon.cache.Cache;
-import org.zeveon.data.Data;
-import org.zeveon.entity.ChatSettings;
 import org.zeveon.entity.Host;
+import org.zeveon.event.ChatSettingsChangedEvent;
+import org.zeveon.event.HostsChangedEvent;
+import org.zeveon.event.SubscriptionChangedEvent;
+import org.zeveon.model.HostImportResult;
+import org.zeveon.model.HostInfo;
+import org.zeveon.repository.HostImportRepository;
+import org.zeveon.repository.HostImportRepository.ImportedHost;
 import org.zeveon.repository.HostRepository;
 import org.zeveon.service.ChatSettingsService;
 import org.zeveon.service.HealthService;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Pattern;
 
-import static java.util.Collections.singleton;
 import static java.util.stream.Collectors.toSet;
-import static java.util.stream.Stream.concat;
+import static org.zeveon.util.ConstraintUtil.IP_REGEXP;
+import static org.zeveon.util.ConstraintUtil.LINK_REGEXP;
 
 /**
  * @author Stanislav Vafin
@@ -27,53 +36,64 @@ import static java.util.stream.Stream.concat;
 @RequiredArgsConstructor
 public class HealthServiceImpl implements HealthService {
 
+    private static final Pattern HOST_PATTERN = Pattern.compile("(" + LINK_REGEXP + "|" + IP_REGEXP + ")");
+    private static final int MAX_URL_LENGTH = 255;
+
     private final HostRepository hostRepository;
+    private final HostImportRepository hostImportRepository;
     private final ChatSettingsService chatSettingsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     @CacheEvict(key = "#chatId", value = Cache.HOSTS)
-    public void saveHosts(Set<String> hostUrls, Long chatId) {
-        var currentChatHostUrls = getHosts(chatId).stream().map(Host::getUrl).toList();
-        var chatSettings = chatSettingsService.getChatSettings(chatId)
-                .orElseGet(() -> chatSettingsService.save(chatId));
-        var chatHosts = hostUrls.stream()
-                .filter(h -> !currentChatHostUrls.contains(h))
-                .map(h -> buildHost(chatSettings, h))
-                .toList();
-        var otherChatHosts = getAllHosts().stream()
-                .filter(h -> !h.getChatSettings().contains(chatSettings))
-                .filter(chatHosts::contains)
-                .toList();
-        var excludedChatHosts = chatHosts.stream()
-                .filter(h -> !otherChatHosts.contains(h))
-                .toList();
-        hostRepository.saveAll(excludedChatHosts);
-        chatSettings.getHosts().addAll(concat(
-                otherChatHosts.stream(),
-                excludedChatHosts.stream()
-        ).collect(toSet()));
-        Data.addAll(excludedChatHosts);
+    public HostImportResult saveHosts(Set<String> hostUrls, Long chatId) {
+        var validUrls = new HashSet<String>();
+        var invalidUrls = new ArrayList<String>();
+        hostUrls.forEach(url -> (isValidUrl(url) ? validUrls : invalidUrls).add(url));
+        if (validUrls.isEmpty()) {
+            return buildImportResult(0, 0, invalidUrls);
+        }
+        if (chatSettingsService.getChatSettings(chatId).isEmpty()) {
+            chatSettingsService.save(chatId);
+            hostRepository.flush();
+        }
+        var hosts = hostImportRepository.upsertHosts(validUrls);
+        var linkedHostIds = hostImportRepository.linkHosts(chatId, hosts.stream()
+                .map(h -> h.getHost().getId())
+                .toList());
+        eventPublisher.publishEvent(new HostsChangedEvent(hosts.stream()
+                .filter(ImportedHost::isCreated)
+                .map(h -> h.getHost().getId())
+                .toList()));
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(linkedHostIds));
+        eventPublisher.publishEvent(new ChatSettingsChangedEvent(chatId));
+        return buildImportResult(linkedHostIds.size(), validUrls.size() - linkedHostIds.size(), invalidUrls);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Host> getAllHosts() {
-        return hostRepository.findAll();
+        return hostRepository.findAllWithStatistic();
     }
 
     @Override
     @Transactional(readOnly = true)
     @Cacheable(key = "#chatId", value = Cache.HOSTS)
-    public Set<Host> getHosts(Long chatId) {
-        return hostRepository.findByChatSettingsChatId(chatId);
+    public Set<HostInfo> getHosts(Long chatId) {
+        return hostRepository.findByChatSettingsChatId(chatId).stream()
+                .map(h -> HostInfo.builder()
+                        .id(h.getId())
+                        .url(h.getUrl())
+                        .build())
+                .collect(toSet());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     @CacheEvict(key = "#chatId", value = Cache.HOSTS)
     public void removeHosts(Set<Long> hostIds, Long chatId) {
-        var chatSettings = chatSettingsService.getChatSettings(chatId)
+        var chatSettings = chatSettingsService.getChatSettingsWithHosts(chatId)
                 .orElseGet(() -> chatSettingsService.save(chatId));
         var chatHosts = chatSettings.getHosts();
         var filteredHostIds = chatHosts.stream()
@@ -83,29 +103,41 @@ public class HealthServiceImpl implements HealthService {
                 .collect(toSet());
         chatHosts.removeIf(h -> hostIds.contains(h.getId()));
         hostRepository.deleteAllById(filteredHostIds);
-        Data.removeAllById(filteredHostIds);
+        eventPublisher.publishEvent(new HostsChangedEvent(filteredHostIds));
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(hostIds));
+        eventPublisher.publishEvent(new ChatSettingsChangedEvent(chatId));
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     @CacheEvict(key = "#chatId", value = Cache.HOSTS)
     public void removeAllHosts(Long chatId) {
-        var chatSettings = chatSettingsService.getChatSettings(chatId)
+        var chatSettings = chatSettingsService.getChatSettingsWithHosts(chatId)
                 .orElseGet(() -> chatSettingsService.save(chatId));
         var chatHosts = chatSettings.getHosts();
+        var chatHostIds = chatHosts.stream()
+                .map(Host::getId)
+                .collect(toSet());
         var filteredHostIds = chatHosts.stream()
                 .filter(h -> h.getChatSettings().size() == 1)
                 .map(Host::getId)
                 .collect(toSet());
         chatHosts.clear();
         hostRepository.deleteAllById(filteredHostIds);
-        Data.removeAllById(filteredHostIds);
+        eventPublisher.publishEvent(new HostsChangedEvent(filteredHostIds));
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(chatHostIds));
+        eventPublisher.publishEvent(new ChatSettingsChangedEvent(chatId));
+    }
+
+    private boolean isValidUrl(String url) {
+        return url.length() <= MAX_URL_LENGTH && HOST_PATTERN.matcher(url).matches();
     }
 
-    private Host buildHost(ChatSettings chatSettings, String url) {
-        return Host.builder()
-                .url(url)
-                .chatSettings(singleton(chatSettings))
+    private HostImportResult buildImportResult(int added, int alreadyAdded, List<String> invalidUrls) {
+        return HostImportResult.builder()
+                .added(added)
+                .alreadyAdded(alreadyAdded)
+                .invalidUrls(invalidUrls)
                 .build();
     }
 }
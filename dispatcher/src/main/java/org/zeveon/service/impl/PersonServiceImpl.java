@@ -3,13 +3,17 @@ package org.zeveon.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.zeveon.cache.Cache;
 import org.zeveon.entity.Person;
+import org.zeveon.event.UsersChangedEvent;
+import org.zeveon.model.PersonInfo;
 import org.zeveon.repository.PersonRepository;
 import org.zeveon.service.PersonService;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,17 +25,21 @@ public class PersonServiceImpl implements PersonService {
 
     private final PersonRepository personRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional(readOnly = true)
     @Cacheable(key = "#userId", value = Cache.USERS)
-    public Optional<Person> findByUserId(Long userId) {
-        return personRepository.findById(userId);
+    public Optional<PersonInfo> findByUserId(Long userId) {
+        return personRepository.findById(userId).map(this::buildPersonInfo);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public Person save(Person person) {
-        return personRepository.save(person);
+    @CacheEvict(key = "#person.userId", value = Cache.USERS)
+    public PersonInfo save(Person person) {
+        eventPublisher.publishEvent(new UsersChangedEvent(List.of(person.getUserId())));
+        return buildPersonInfo(personRepository.save(person));
     }
 
     @Override
@@ -39,7 +47,19 @@ public class PersonServiceImpl implements PersonService {
     @CacheEvict(value = Cache.USERS, allEntries = true)
     public Optional<Person> updateAdminRights(String username, boolean isAdmin) {
         var person = personRepository.findByUsername(username);
-        person.ifPresent(p -> p.setAdmin(isAdmin));
+        person.ifPresent(p -> {
+            p.setAdmin(isAdmin);
+            eventPublisher.publishEvent(new UsersChangedEvent(List.of(p.getUserId())));
+        });
         return person;
     }
+
+    private PersonInfo buildPersonInfo(Person person) {
+        return PersonInfo.builder()
+                .userId(person.getUserId())
+                .username(person.getUsername())
+                .admin(person.isAdmin())
+                .superAdmin(person.isSuperAdmin())
+                .build();
+    }
 }
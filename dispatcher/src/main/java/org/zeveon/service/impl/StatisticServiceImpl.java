@@ -1,30 +1,43 @@
 package org.zeveon.service.impl;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.cache.annotation.CacheEvict;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.telegram.telegrambots.meta.api.objects.InputFile;
-import org.zeveon.cache.Cache;
+import org.zeveon.entity.ChatSettings;
 import org.zeveon.entity.Host;
 import org.zeveon.entity.Statistic;
+import org.zeveon.model.CheckRollup;
 import org.zeveon.model.Method;
+import org.zeveon.model.SlaReport;
+import org.zeveon.model.SlaWindow;
+import org.zeveon.repository.CheckRollupRepository;
+import org.zeveon.repository.HostRepository;
 import org.zeveon.service.ChatSettingsService;
-import org.zeveon.service.HealthService;
 import org.zeveon.service.StatisticService;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Optional;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
 
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static java.util.Arrays.stream;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
+import static java.util.Optional.ofNullable;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 
 /**
  * @author Stanislav Vafin
@@ -36,8 +49,20 @@ public class StatisticServiceImpl implements StatisticService {
 
     public static final double NANOS_IN_SECOND = 1_000_000_000.0;
     public static final String DEFAULT_STATISTIC_FILE_NAME = "speed-test-statistic.xlsx";
+    public static final String STATISTIC_FILE_PREFIX = "speed-test-statistic-";
+    public static final String STATISTIC_FILE_SUFFIX = ".xlsx";
+    public static final int NUMERIC_COLUMN_WIDTH = 12;
+    public static final int COLUMN_PADDING = 2;
+    public static final int MAX_COLUMN_WIDTH = 255;
+    public static final int CHARACTER_WIDTH = 256;
     public static final String STATISTIC_TEMPLATE_TIME = "%s, %s, %s";
     public static final String STATISTIC_TEMPLATE_CODE = "%s, %s";
+    public static final String STATISTIC_TEMPLATE_SLA = "%s, %s, %s";
+    public static final double PERCENT = 100.0;
+    public static final long NANOS_IN_MICRO = 1000L;
+    public static final double P50 = 0.50;
+    public static final double P95 = 0.95;
+    public static final double P99 = 0.99;
     public static final String URL = "URL";
     public static final Map<Method, String> DESCRIPTION = Map.of(
             Method.APACHE_HTTP_CLIENT, "method.apache",
@@ -47,79 +72,259 @@ public class StatisticServiceImpl implements StatisticService {
 
     private final MessageSource messageSource;
 
-    private final HealthService healthService;
+    private final HostRepository hostRepository;
 
     private final ChatSettingsService chatSettingsService;
 
+    private final CheckRollupRepository checkRollupRepository;
+
+    @Value("${statistic.export.row-window}")
+    private Integer rowWindow;
+
+    @Value("${health-check.history.minute-retention}")
+    private Duration minuteRetention;
+
     @Override
-    @CacheEvict(key = "#chatId", value = Cache.HOSTS, beforeInvocation = true)
     @Transactional(readOnly = true)
     public Optional<InputFile> generateStatistic(Long chatId) {
-        try (var workbook = new XSSFWorkbook(); var outputStream = new ByteArrayOutputStream()) {
-            buildStatistic(workbook, chatId);
-            workbook.write(outputStream);
+        Path file = null;
+        var workbook = new SXSSFWorkbook(rowWindow);
+        try {
+            file = Files.createTempFile(STATISTIC_FILE_PREFIX, STATISTIC_FILE_SUFFIX);
+            try (var outputStream = Files.newOutputStream(file)) {
+                buildStatistic(workbook, chatId);
+                workbook.write(outputStream);
+            }
             return of(new InputFile()
-                    .setMedia(new ByteArrayInputStream(outputStream.toByteArray()), DEFAULT_STATISTIC_FILE_NAME));
+                    .setMedia(Files.newInputStream(file, DELETE_ON_CLOSE), DEFAULT_STATISTIC_FILE_NAME));
         } catch (IOException e) {
             log.error(e.getMessage());
+            deleteQuietly(file);
             return empty();
+        } finally {
+            workbook.dispose();
         }
     }
 
-    private void buildStatistic(XSSFWorkbook workbook, Long chatId) {
+    @Override
+    @Transactional(readOnly = true)
+    public List<SlaReport> getSlaReports(Long chatId, Duration window) {
+        var method = getMethod(chatId);
+        var hostIds = hostRepository.findByChatSettingsChatId(chatId).stream()
+                .map(Host::getId)
+                .toList();
+        return buildSlaReports(hostIds, window, findSlaRollups(hostIds, method, window));
+    }
+
+    private void buildStatistic(SXSSFWorkbook workbook, Long chatId) {
         var locale = chatSettingsService.getLocale(chatId);
+        var methods = Method.values();
+        var headers = new ArrayList<String>();
+        headers.add(URL);
+        for (var method : methods) {
+            headers.add(STATISTIC_TEMPLATE_TIME.formatted(
+                    getLocalizedMessage(DESCRIPTION.get(method), locale),
+                    getLocalizedMessage("statistic.response_time", locale),
+                    getLocalizedMessage("statistic.secs", locale)
+            ));
+        }
+        for (var method : methods) {
+            headers.add(STATISTIC_TEMPLATE_CODE.formatted(
+                    getLocalizedMessage(DESCRIPTION.get(method), locale),
+                    getLocalizedMessage("statistic.response_code", locale)
+            ));
+        }
+        for (var responseTimeColumn : ResponseTimeColumn.values()) {
+            for (var method : methods) {
+                headers.add(STATISTIC_TEMPLATE_TIME.formatted(
+                        getLocalizedMessage(DESCRIPTION.get(method), locale),
+                        getLocalizedMessage(responseTimeColumn.getCode(), locale),
+                        getLocalizedMessage("statistic.secs", locale)
+                ));
+            }
+        }
+        var slaMethod = getMethod(chatId);
+        for (var window : SlaWindow.values()) {
+            for (var slaColumn : SlaColumn.values()) {
+                headers.add(STATISTIC_TEMPLATE_SLA.formatted(
+                        getLocalizedMessage(DESCRIPTION.get(slaMethod), locale),
+                        window.getLabel(),
+                        getLocalizedMessage(slaColumn.getCode(), locale)
+                ));
+            }
+        }
         var sheet = workbook.createSheet();
         var rowHeader = sheet.createRow(0);
-        rowHeader.createCell(0).setCellValue(URL);
-        for (int i = 0; i < Method.values().length; i++) {
-            rowHeader.createCell(i + 1)
-                    .setCellValue(STATISTIC_TEMPLATE_TIME.formatted(
-                            getLocalizedMessage(DESCRIPTION.get(Method.values()[i]), locale),
-                            getLocalizedMessage("statistic.response_time", locale),
-                            getLocalizedMessage("statistic.secs", locale)
-                    ));
-        }
-        for (int i = 0; i < Method.values().length; i++) {
-            rowHeader.createCell(i + 4)
-                    .setCellValue(STATISTIC_TEMPLATE_CODE.formatted(
-                            getLocalizedMessage(DESCRIPTION.get(Method.values()[i]), locale),
-                            getLocalizedMessage("statistic.response_code", locale)
-                    ));
+        var widths = new int[headers.size()];
+        for (int i = 0; i < headers.size(); i++) {
+            rowHeader.createCell(i).setCellValue(headers.get(i));
+            widths[i] = Math.max(headers.get(i).length(), NUMERIC_COLUMN_WIDTH);
         }
-        var hosts = healthService.getHosts(chatId);
-        var iterator = hosts.iterator();
-        for (int i = 0; i < hosts.size(); i++) {
-            var host = iterator.next();
-            var row = sheet.createRow(i + 1);
+        var hosts = hostRepository.findWithStatisticByChatSettingsChatId(chatId);
+        var hostIds = hosts.stream().map(Host::getId).toList();
+        var slaReports = stream(SlaWindow.values())
+                .map(window -> buildSlaReports(hostIds, window.getDuration(),
+                        findSlaRollups(hostIds, slaMethod, window.getDuration())).stream()
+                        .collect(toMap(SlaReport::getHostId, identity())))
+                .toList();
+        var rowNumber = 1;
+        for (var host : hosts) {
+            var statistic = indexByMethod(host);
+            var row = sheet.createRow(rowNumber++);
             row.createCell(0).setCellValue(host.getUrl());
-            for (int j = 0; j < Method.values().length; j++) {
-                row.createCell(j + 1).setCellValue(getResponseTimeInSeconds(host, Method.values()[j]));
+            widths[0] = Math.max(widths[0], host.getUrl().length());
+            var column = 1;
+            for (var method : methods) {
+                row.createCell(column++).setCellValue(getTimeInSeconds(statistic.get(method), Statistic::getResponseTime));
             }
-            for (int j = 0; j < Method.values().length; j++) {
-                row.createCell(j + 4).setCellValue(getResponseCode(host, Method.values()[j]));
+            for (var method : methods) {
+                row.createCell(column++).setCellValue(getResponseCode(statistic.get(method)));
             }
+            for (var responseTimeColumn : ResponseTimeColumn.values()) {
+                for (var method : methods) {
+                    row.createCell(column++).setCellValue(getTimeInSeconds(statistic.get(method), responseTimeColumn.getField()));
+                }
+            }
+            for (var windowReports : slaReports) {
+                var slaReport = windowReports.get(host.getId());
+                for (var slaColumn : SlaColumn.values()) {
+                    row.createCell(column++).setCellValue(slaReport.getChecks() > 0 ? slaColumn.getField().apply(slaReport) : Double.NaN);
+                }
+            }
+        }
+        for (int i = 0; i < widths.length; i++) {
+            sheet.setColumnWidth(i, Math.min(widths[i] + COLUMN_PADDING, MAX_COLUMN_WIDTH) * CHARACTER_WIDTH);
         }
-        for (int i = 0; i < 7; i++) {
-            sheet.autoSizeColumn(i);
+    }
+
+    private Map<Method, Statistic> indexByMethod(Host host) {
+        var statistic = new EnumMap<Method, Statistic>(Method.class);
+        host.getStatistic().forEach(s -> statistic.put(s.getId().getMethod(), s));
+        return statistic;
+    }
+
+    private Double getTimeInSeconds(Statistic statistic, Function<Statistic, Duration> field) {
+        return ofNullable(statistic)
+                .map(field)
+                .map(d -> d.toNanos() / NANOS_IN_SECOND)
+                .orElse(Double.NaN);
+    }
+
+    private List<SlaReport> buildSlaReports(List<Long> hostIds, Duration window, List<CheckRollup> rollups) {
+        var merged = new HashMap<Long, CheckRollup>();
+        rollups.forEach(r -> merged.computeIfAbsent(r.getHostId(), id -> CheckRollup.builder()
+                        .hostId(id)
+                        .method(r.getMethod())
+                        .build()).add(r));
+        return hostIds.stream()
+                .map(hostId -> buildSlaReport(hostId, window, ofNullable(merged.get(hostId))
+                        .orElseGet(() -> CheckRollup.builder().hostId(hostId).build())))
+                .toList();
+    }
+
+    private SlaReport buildSlaReport(Long hostId, Duration window, CheckRollup rollup) {
+        var histogram = rollup.getHistogram();
+        return SlaReport.builder()
+                .hostId(hostId)
+                .window(window)
+                .checks(rollup.getChecks())
+                .uptime(rollup.getChecks() > 0
+                        ? PERCENT * (rollup.getChecks() - rollup.getFailures()) / rollup.getChecks()
+                        : Double.NaN)
+                .outages(rollup.getOutages())
+                .mttr(rollup.getOutages() > 0
+                        ? Duration.ofMillis(rollup.getDowntime() / rollup.getOutages())
+                        : Duration.ZERO)
+                .responseTimeP50(ofMicros(histogram.getValueAtQuantile(P50)))
+                .responseTimeP95(ofMicros(histogram.getValueAtQuantile(P95)))
+                .responseTimeP99(ofMicros(histogram.getValueAtQuantile(P99)))
+                .build();
+    }
+
+    /**
+     * Covers the window with minute rollups at both edges and hour rollups in between. Minute rollups older than
+     * their retention are gone, so such a window starts at the beginning of its first hour instead.
+     */
+    private List<CheckRollup> findSlaRollups(List<Long> hostIds, Method method, Duration window) {
+        var to = Instant.now();
+        var from = to.minus(window).truncatedTo(MINUTES);
+        var hoursFrom = from.isBefore(to.minus(minuteRetention))
+                ? from.truncatedTo(HOURS)
+                : from.minusNanos(1).truncatedTo(HOURS).plus(1, HOURS);
+        var hoursTo = to.truncatedTo(HOURS);
+        if (!hoursFrom.isBefore(hoursTo)) {
+            return checkRollupRepository.findMinutes(hostIds, method, from, to);
         }
+        var rollups = new ArrayList<CheckRollup>();
+        rollups.addAll(checkRollupRepository.findMinutes(hostIds, method, from, hoursFrom));
+        rollups.addAll(checkRollupRepository.findHours(hostIds, method, hoursFrom, hoursTo));
+        rollups.addAll(checkRollupRepository.findMinutes(hostIds, method, hoursTo, to));
+        return rollups;
+    }
+
+    private Method getMethod(Long chatId) {
+        return chatSettingsService.getChatSettings(chatId)
+                .map(ChatSettings::getMethod)
+                .orElse(ChatSettings.builder().build().getMethod());
     }
 
-    private Double getResponseTimeInSeconds(Host host, Method apacheHttpClient) {
-        return host.getStatistic().stream()
-                .filter(s -> s.getId().getMethod().equals(apacheHttpClient))
-                .map(s -> s.getResponseTime().toNanos())
-                .map(n -> n / NANOS_IN_SECOND)
-                .findAny().orElse(Double.NaN);
+    private static Duration ofMicros(long micros) {
+        return Duration.ofNanos(micros * NANOS_IN_MICRO);
     }
 
-    private Integer getResponseCode(Host host, Method apacheHttpClient) {
-        return host.getStatistic().stream()
-                .filter(s -> s.getId().getMethod().equals(apacheHttpClient))
+    private static Double toSeconds(Duration duration) {
+        return duration.toNanos() / NANOS_IN_SECOND;
+    }
+
+    private Integer getResponseCode(Statistic statistic) {
+        return ofNullable(statistic)
                 .map(Statistic::getResponseCode)
-                .findAny().orElse(0);
+                .orElse(0);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.error(e.getMessage());
+        }
     }
 
     private String getLocalizedMessage(String code, Locale locale) {
         return messageSource.getMessage(code, null, locale);
     }
+
+    @Getter
+    @RequiredArgsConstructor
+    private enum ResponseTimeColumn {
+
+        P50("statistic.response_time_p50", Statistic::getResponseTimeP50),
+        P95("statistic.response_time_p95", Statistic::getResponseTimeP95),
+        P99("statistic.response_time_p99", Statistic::getResponseTimeP99),
+        EWMA("statistic.response_time_ewma", Statistic::getResponseTimeEwma),
+        MIN("statistic.response_time_min", Statistic::getResponseTimeMin),
+        MAX("statistic.response_time_max", Statistic::getResponseTimeMax);
+
+        private final String code;
+
+        private final Function<Statistic, Duration> field;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private enum SlaColumn {
+
+        UPTIME("sla.uptime", SlaReport::getUptime),
+        OUTAGES("sla.outages", r -> (double) r.getOutages()),
+        MTTR("sla.mttr", r -> toSeconds(r.getMttr())),
+        P50("statistic.response_time_p50", r -> toSeconds(r.getResponseTimeP50())),
+        P95("statistic.response_time_p95", r -> toSeconds(r.getResponseTimeP95())),
+        P99("statistic.response_time_p99", r -> toSeconds(r.getResponseTimeP99()));
+
+        private final String code;
+
+        private final Function<SlaReport, Double> field;
+    }
 }
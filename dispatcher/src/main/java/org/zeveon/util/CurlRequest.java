@@ -2,6 +2,15 @@ package org.zeveon.util;
 
 import lombok.Getter;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
 import static org.apache.commons.lang3.StringUtils.SPACE;
 import static org.zeveon.util.StringUtil.COLON;
 import static org.zeveon.util.StringUtil.QUOT;
@@ -12,25 +21,91 @@ import static org.zeveon.util.StringUtil.QUOT;
 @Getter
 public class CurlRequest {
 
+    private static final String STATUS_LINE_PREFIX = "HTTP/";
+
     private final String command;
 
+    private final List<String> arguments;
+
+    private final String url;
+
+    private final URI uri;
+
+    private final boolean head;
+
+    private final boolean location;
+
+    private final boolean silent;
+
+    private final Map<String, String> headers;
+
+    private final Integer connectTimeout;
+
+    private final Integer maxTime;
+
     private CurlRequest(CurlRequestBuilder builder) {
         this.command = builder.request.toString();
+        this.arguments = List.copyOf(builder.arguments);
+        this.url = builder.url;
+        this.uri = builder.uri;
+        this.head = builder.head;
+        this.location = builder.location;
+        this.silent = builder.silent;
+        this.headers = Map.copyOf(builder.headers);
+        this.connectTimeout = builder.connectTimeout;
+        this.maxTime = builder.maxTime;
+    }
+
+    /**
+     * Reads the status code of a status line in curl header output, other lines are skipped
+     */
+    public static Optional<Integer> parseStatusCode(String line) {
+        if (!line.startsWith(STATUS_LINE_PREFIX)) {
+            return empty();
+        }
+        var parts = line.split(SPACE);
+        try {
+            return parts.length > 1 ? of(Integer.parseInt(parts[1])) : empty();
+        } catch (NumberFormatException e) {
+            return empty();
+        }
     }
 
     public static CurlRequestBuilder builder(String url) {
-        return new CurlRequestBuilder(url);
+        return new CurlRequestBuilder(url, null);
+    }
+
+    public static CurlRequestBuilder builder(URI uri) {
+        return new CurlRequestBuilder(uri.toString(), uri);
     }
 
     public static class CurlRequestBuilder {
 
         private final StringBuilder request;
 
+        private final List<String> arguments;
+
         private final String url;
 
-        CurlRequestBuilder(String url) {
+        private final URI uri;
+
+        private final Map<String, String> headers = new LinkedHashMap<>();
+
+        private boolean head;
+
+        private boolean location;
+
+        private boolean silent;
+
+        private Integer connectTimeout;
+
+        private Integer maxTime;
+
+        CurlRequestBuilder(String url, URI uri) {
             this.request = new StringBuilder("curl");
+            this.arguments = new ArrayList<>(List.of("curl"));
             this.url = url;
+            this.uri = uri;
         }
 
         /**
@@ -38,6 +113,8 @@ public class CurlRequest {
          */
         public CurlRequestBuilder head() {
             this.request.append(SPACE).append("-I");
+            this.arguments.add("-I");
+            this.head = true;
             return this;
         }
 
@@ -46,6 +123,8 @@ public class CurlRequest {
          */
         public CurlRequestBuilder location() {
             this.request.append(SPACE).append("-L");
+            this.arguments.add("-L");
+            this.location = true;
             return this;
         }
 
@@ -54,6 +133,8 @@ public class CurlRequest {
          */
         public CurlRequestBuilder silent() {
             this.request.append(SPACE).append("-s");
+            this.arguments.add("-s");
+            this.silent = true;
             return this;
         }
 
@@ -70,6 +151,9 @@ public class CurlRequest {
                     .append(SPACE)
                     .append(headerValue)
                     .append(QUOT);
+            this.arguments.add("-H");
+            this.arguments.add(headerKey + COLON + SPACE + headerValue);
+            this.headers.put(headerKey, headerValue);
             return this;
         }
 
@@ -81,11 +165,29 @@ public class CurlRequest {
                     .append("--connect-timeout")
                     .append(SPACE)
                     .append(seconds);
+            this.arguments.add("--connect-timeout");
+            this.arguments.add(String.valueOf(seconds));
+            this.connectTimeout = seconds;
+            return this;
+        }
+
+        /**
+         * Maximum time allowed for the whole operation
+         */
+        public CurlRequestBuilder maxTime(Integer seconds) {
+            this.request.append(SPACE)
+                    .append("--max-time")
+                    .append(SPACE)
+                    .append(seconds);
+            this.arguments.add("--max-time");
+            this.arguments.add(String.valueOf(seconds));
+            this.maxTime = seconds;
             return this;
         }
 
         public CurlRequest build() {
             request.append(SPACE).append(url);
+            arguments.add(url);
             return new CurlRequest(this);
         }
     }
@@ -1,5 +1,6 @@
 package org.zeveon.util;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -11,6 +12,19 @@ import static java.util.concurrent.ConcurrentHashMap.newKeySet;
 public class Functions {
 
     public static <T> Predicate<T> distinctByKey(Function<? super T, ?> keyExtractor) {
-        return t -> newKeySet().add(keyExtractor.apply(t));
+        var seen = newKeySet();
+        return t -> seen.add(keyExtractor.apply(t));
+    }
+
+    /**
+     * Cancelling a future does not stop the work behind it, so the abort action is run when the future is cancelled
+     */
+    public static <T> CompletableFuture<T> onCancel(CompletableFuture<T> future, Runnable abort) {
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                abort.run();
+            }
+        });
+        return future;
     }
 }
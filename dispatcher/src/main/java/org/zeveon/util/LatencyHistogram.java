@@ -0,0 +1,108 @@
+package org.zeveon.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size log-linear histogram of microsecond values with ~3% relative error.
+ *
+ * @author Stanislav Vafin
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 27;
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final int[] counts;
+
+    private long totalCount;
+
+    public LatencyHistogram() {
+        this.counts = new int[BUCKET_COUNT];
+    }
+
+    public void add(long micros) {
+        counts[indexOf(micros)]++;
+        totalCount++;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Adds count values to the bucket with the given index, as aggregated by {@link #getLowerBounds()}
+     */
+    public void add(int index, int count) {
+        counts[index] += count;
+        totalCount += count;
+    }
+
+    /**
+     * Inclusive lower bounds of all buckets, suitable as width_bucket thresholds
+     */
+    public static int[] getLowerBounds() {
+        var lowerBounds = new int[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            lowerBounds[i] = (int) lowerBoundOf(i);
+        }
+        return lowerBounds;
+    }
+
+    public long getValueAtQuantile(double quantile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        var rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        var cumulative = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(BUCKET_COUNT - 1);
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) Math.max(micros, 0);
+        }
+        var exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        var subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long valueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = index / SUB_BUCKET_COUNT - 1;
+        return lowerBoundOf(index) + ((1L << shift) >> 1);
+    }
+
+    static long lowerBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        var shift = index / SUB_BUCKET_COUNT - 1;
+        var subBucket = index % SUB_BUCKET_COUNT;
+        return (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+}
@@ -0,0 +1,58 @@
+package org.zeveon.util;
+
+import java.time.Duration;
+
+/**
+ * @author Stanislav Vafin
+ */
+public class ResponseTimeAccumulator {
+
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final long NANOS_IN_MICRO = 1000L;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private long count;
+
+    private double mean;
+
+    private double ewma;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max = Long.MIN_VALUE;
+
+    public synchronized void add(Duration responseTime) {
+        var nanos = responseTime.toNanos();
+        count++;
+        mean += (nanos - mean) / count;
+        ewma = count == 1 ? nanos : ewma + EWMA_WEIGHT * (nanos - ewma);
+        min = Math.min(min, nanos);
+        max = Math.max(max, nanos);
+        histogram.add(nanos / NANOS_IN_MICRO);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized Duration getMean() {
+        return Duration.ofNanos(Math.round(mean));
+    }
+
+    public synchronized Duration getEwma() {
+        return Duration.ofNanos(Math.round(ewma));
+    }
+
+    public synchronized Duration getMin() {
+        return count > 0 ? Duration.ofNanos(min) : Duration.ZERO;
+    }
+
+    public synchronized Duration getMax() {
+        return count > 0 ? Duration.ofNanos(max) : Duration.ZERO;
+    }
+
+    public synchronized Duration getPercentile(double quantile) {
+        return Duration.ofNanos(histogram.getValueAtQuantile(quantile) * NANOS_IN_MICRO);
+    }
+}
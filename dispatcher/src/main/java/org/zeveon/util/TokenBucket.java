@@ -0,0 +1,51 @@
+package org.zeveon.util;
+
+/**
+ * Token bucket refilled continuously at a fixed rate up to its capacity.
+ *
+ * @author Stanislav Vafin
+ */
+public class TokenBucket {
+
+    private static final double NANOS_IN_SECOND = 1_000_000_000D;
+
+    private final double capacity;
+
+    private final double tokensPerNano;
+
+    private double tokens;
+
+    private long refilledAt;
+
+    public TokenBucket(double tokensPerSecond, double capacity) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_IN_SECOND;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized boolean hasToken() {
+        refill();
+        return tokens >= 1;
+    }
+
+    public synchronized boolean isFull() {
+        refill();
+        return tokens >= capacity;
+    }
+
+    private void refill() {
+        var now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
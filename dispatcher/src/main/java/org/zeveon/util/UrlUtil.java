@@ -0,0 +1,44 @@
+package org.zeveon.util;
+
+import org.zeveon.model.ConnectionType;
+import org.zeveon.model.Protocol;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.zeveon.model.Protocol.HTTP;
+
+/**
+ * @author Stanislav Vafin
+ */
+public class UrlUtil {
+
+    private static final String URL_APPENDER = "/robots.txt";
+    private static final Pattern PROTOCOL_PATTERN = Pattern.compile("^https?");
+
+    public static Optional<Protocol> getProtocol(String url) {
+        if (!hasProtocol(url)) {
+            return empty();
+        }
+        var matcher = PROTOCOL_PATTERN.matcher(url);
+        return matcher.find()
+                ? of(Protocol.valueOf(matcher.group().toUpperCase()))
+                : empty();
+    }
+
+    public static String modifyUrl(String hostUrl, ConnectionType connectionType, Optional<Protocol> protocol) {
+        var modifiedProtocolUrl = protocol
+                .filter(p -> hasProtocol(hostUrl))
+                .map(p -> PROTOCOL_PATTERN.matcher(hostUrl).replaceFirst(p.name().toLowerCase()))
+                .orElse(hostUrl);
+        return connectionType.isNeedAppender()
+                ? modifiedProtocolUrl.concat(URL_APPENDER)
+                : modifiedProtocolUrl;
+    }
+
+    public static boolean hasProtocol(String url) {
+        return url.startsWith(HTTP.name().toLowerCase());
+    }
+}
@@ -0,0 +1,62 @@
+package org.zeveon.component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.zeveon.model.ConnectionType;
+import org.zeveon.model.Method;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Stanislav Vafin
+ */
+class HealthCheckMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final HealthCheckMetrics healthCheckMetrics = new HealthCheckMetrics(meterRegistry);
+
+    @Test
+    void recordsOutcomesByStatusClass() {
+        healthCheckMetrics.recordOutcome(Method.JAVA_HTTP_CLIENT, 0);
+        healthCheckMetrics.recordOutcome(Method.JAVA_HTTP_CLIENT, 200);
+        healthCheckMetrics.recordOutcome(Method.JAVA_HTTP_CLIENT, 204);
+        healthCheckMetrics.recordOutcome(Method.JAVA_HTTP_CLIENT, 503);
+        healthCheckMetrics.recordOutcome(Method.JAVA_HTTP_CLIENT, 999);
+
+        assertThat(outcome(Method.JAVA_HTTP_CLIENT, "unreachable")).isEqualTo(1);
+        assertThat(outcome(Method.JAVA_HTTP_CLIENT, "2xx")).isEqualTo(2);
+        assertThat(outcome(Method.JAVA_HTTP_CLIENT, "5xx")).isEqualTo(1);
+        assertThat(outcome(Method.JAVA_HTTP_CLIENT, "9xx")).isEqualTo(1);
+        assertThat(outcome(Method.APACHE_HTTP_CLIENT, "2xx")).isZero();
+    }
+
+    @Test
+    void recordsAgainstRegisteredMeters() {
+        var meters = meterRegistry.getMeters().size();
+
+        healthCheckMetrics.recordProbe(Method.CURL_PROCESS, Duration.ofMillis(30));
+        healthCheckMetrics.recordProbe(Method.CURL_PROCESS, Duration.ofMillis(50));
+        healthCheckMetrics.recordAttempt(Method.CURL_PROCESS, ConnectionType.NO_APPENDER_CH_PROTO);
+        healthCheckMetrics.recordPublishConfirm(true, 100);
+        healthCheckMetrics.recordQueueLag(Duration.ofMillis(5));
+
+        assertThat(meterRegistry.getMeters()).hasSize(meters);
+        assertThat(meterRegistry.get("health.check.probe").tag("method", "CURL_PROCESS").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("health.check.attempts")
+                .tag("method", "CURL_PROCESS")
+                .tag("connection_type", "NO_APPENDER_CH_PROTO")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("health.check.publish.confirms").tag("outcome", "ack").counter().count()).isEqualTo(1);
+    }
+
+    private double outcome(Method method, String status) {
+        return meterRegistry.get("health.check.outcome")
+                .tag("method", method.name())
+                .tag("status", status)
+                .counter()
+                .count();
+    }
+}
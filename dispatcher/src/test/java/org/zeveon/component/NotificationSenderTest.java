@@ -0,0 +1,66 @@
+package org.zeveon.component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * @author Stanislav Vafin
+ */
+class NotificationSenderTest {
+
+    private HealthBot healthBot;
+
+    private NotificationSender notificationSender;
+
+    @BeforeEach
+    void setUp() {
+        healthBot = mock(HealthBot.class);
+        notificationSender = new NotificationSender(new HealthCheckMetrics(new SimpleMeterRegistry()));
+        setField(notificationSender, "queueCapacity", 100);
+        setField(notificationSender, "globalRate", 30.0);
+        setField(notificationSender, "chatRate", 1.0);
+        setField(notificationSender, "coalesceWindow", Duration.ofHours(1));
+        setField(notificationSender, "maxAttempts", 5);
+        setField(notificationSender, "retryBackoff", Duration.ofSeconds(1));
+        setField(notificationSender, "threads", 2);
+        setField(notificationSender, "shutdownTimeout", Duration.ofSeconds(5));
+        notificationSender.init();
+    }
+
+    @Test
+    void deliversPendingNotificationsOnShutdown() throws Exception {
+        notificationSender.registerBot(healthBot);
+        notificationSender.send(-100L, "host1 is down");
+        notificationSender.send(-100L, "host2 is down");
+        notificationSender.send(-200L, "host1 is down");
+
+        notificationSender.shutdown();
+
+        var messages = ArgumentCaptor.forClass(SendMessage.class);
+        verify(healthBot, times(2)).execute(messages.capture());
+        assertThat(messages.getAllValues())
+                .extracting(SendMessage::getChatId, SendMessage::getText)
+                .containsExactlyInAnyOrder(
+                        tuple("-100", "host1 is down\nhost2 is down"),
+                        tuple("-200", "host1 is down"));
+    }
+
+    @Test
+    void dropsPendingNotificationsWithoutBot() throws Exception {
+        notificationSender.send(-100L, "host1 is down");
+
+        notificationSender.shutdown();
+
+        verifyNoInteractions(healthBot);
+    }
+}
@@ -0,0 +1,149 @@
+package org.zeveon.component;
+
+import com.rabbitmq.client.AMQP;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.PendingConfirm;
+import org.springframework.amqp.rabbit.connection.PublisherCallbackChannel;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.zeveon.config.RabbitConfig;
+import org.zeveon.model.Method;
+import org.zeveon.model.ProbeTask;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * @author Stanislav Vafin
+ */
+class RabbitSenderTest {
+
+    private static final String QUEUE = "hostQueue";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong publishSequence = new AtomicLong();
+
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    private PublisherCallbackChannel channel;
+
+    private ConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.initialize();
+        channel = mock(PublisherCallbackChannel.class);
+        when(channel.isOpen()).thenReturn(true);
+        when(channel.getNextPublishSeqNo()).thenAnswer(i -> publishSequence.incrementAndGet());
+        var connection = mock(Connection.class);
+        when(connection.isOpen()).thenReturn(true);
+        when(connection.createChannel(anyBoolean())).thenReturn(channel);
+        connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskScheduler.shutdown();
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 100", "100, 100", "250, 100", "1000, 64", "10, 1"})
+    void sendsHostsInBatchesAndConfirmsEachBatch(int hosts, int batchSize) throws Exception {
+        var rabbitTemplate = createRabbitTemplate(true, batchSize);
+        var rabbitSender = createRabbitSender(rabbitTemplate);
+
+        for (long hostId = 1; hostId <= hosts; hostId++) {
+            rabbitSender.send(new ProbeTask(hostId, Method.APACHE_HTTP_CLIENT));
+        }
+        ((BatchingRabbitTemplate) rabbitTemplate).flush();
+
+        var batches = (hosts + batchSize - 1) / batchSize;
+        var properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        var bodies = ArgumentCaptor.forClass(byte[].class);
+        verify(channel, times(batches)).basicPublish(eq(""), eq(QUEUE), anyBoolean(),
+                properties.capture(), bodies.capture());
+        assertThat(debatch(properties.getAllValues(), bodies.getAllValues()))
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, hosts)
+                        .mapToObj(hostId -> new ProbeTask(hostId, Method.APACHE_HTTP_CLIENT).toPayload())
+                        .toList());
+
+        var confirms = ArgumentCaptor.forClass(PendingConfirm.class);
+        verify(channel, times(batches)).addPendingConfirm(same(rabbitTemplate), anyLong(), confirms.capture());
+        confirms.getAllValues().forEach(c -> rabbitTemplate.handleConfirm(c, true));
+        var batchSizes = meterRegistry.get("health.check.publish.batch.size").summary();
+        assertThat(batchSizes.count()).isEqualTo(batches);
+        assertThat(batchSizes.totalAmount()).isEqualTo(hosts);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "250"})
+    void sendsEveryHostSeparatelyWithoutBatching(int hosts) throws Exception {
+        var rabbitSender = createRabbitSender(createRabbitTemplate(false, 100));
+
+        for (long hostId = 1; hostId <= hosts; hostId++) {
+            rabbitSender.send(new ProbeTask(hostId, Method.APACHE_HTTP_CLIENT));
+        }
+
+        verify(channel, times(hosts)).basicPublish(eq(""), eq(QUEUE), anyBoolean(),
+                any(AMQP.BasicProperties.class), any(byte[].class));
+    }
+
+    private RabbitTemplate createRabbitTemplate(boolean batchEnabled, int batchSize) {
+        var clusterMembership = mock(ClusterMembership.class);
+        var rabbitConfig = new RabbitConfig(clusterMembership);
+        setField(rabbitConfig, "queueName", QUEUE);
+        setField(rabbitConfig, "batchEnabled", batchEnabled);
+        setField(rabbitConfig, "batchSize", batchSize);
+        setField(rabbitConfig, "batchBufferLimit", Integer.MAX_VALUE);
+        setField(rabbitConfig, "batchLinger", Duration.ofMinutes(1));
+        return rabbitConfig.rabbitTemplate(connectionFactory, taskScheduler);
+    }
+
+    private RabbitSender createRabbitSender(RabbitTemplate rabbitTemplate) {
+        var clusterMembership = mock(ClusterMembership.class);
+        var rabbitConfig = new RabbitConfig(clusterMembership);
+        setField(rabbitConfig, "queueName", QUEUE);
+        var rabbitSender = new RabbitSender(rabbitConfig, rabbitTemplate, new HealthCheckMetrics(meterRegistry));
+        rabbitSender.init();
+        return rabbitSender;
+    }
+
+    private List<String> debatch(List<AMQP.BasicProperties> properties, List<byte[]> bodies) {
+        var propertiesConverter = new DefaultMessagePropertiesConverter();
+        var batchingStrategy = new SimpleBatchingStrategy(0, 0, 0);
+        var payloads = new ArrayList<String>();
+        for (int i = 0; i < bodies.size(); i++) {
+            var message = new Message(bodies.get(i), propertiesConverter.toMessageProperties(
+                    properties.get(i), null, StandardCharsets.UTF_8.name()));
+            if (batchingStrategy.canDebatch(message.getMessageProperties())) {
+                batchingStrategy.deBatch(message, fragment -> payloads.add(new String(fragment.getBody(), StandardCharsets.UTF_8)));
+            } else {
+                payloads.add(new String(message.getBody(), StandardCharsets.UTF_8));
+            }
+        }
+        return payloads;
+    }
+}
@@ -0,0 +1,32 @@
+package org.zeveon.config;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Embedded PostgreSQL with the health schema, migrated by Liquibase like the real database.
+ *
+ * @author Stanislav Vafin
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class EmbeddedPostgresConfig {
+
+    @Bean(destroyMethod = "close")
+    public EmbeddedPostgres embeddedPostgres() throws IOException {
+        return EmbeddedPostgres.builder().start();
+    }
+
+    @Bean
+    public DataSource dataSource(EmbeddedPostgres embeddedPostgres) throws SQLException {
+        var dataSource = embeddedPostgres.getPostgresDatabase();
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS health");
+        }
+        return dataSource;
+    }
+}
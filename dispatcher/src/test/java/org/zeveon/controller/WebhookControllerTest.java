@@ -0,0 +1,108 @@
+package org.zeveon.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.zeveon.component.UpdateDispatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.zeveon.controller.WebhookController.SECRET_TOKEN_HEADER;
+
+/**
+ * @author Stanislav Vafin
+ */
+class WebhookControllerTest {
+
+    private static final String PATH = "/telegram/webhook";
+    private static final String SECRET_TOKEN = "webhook-secret";
+    private static final String UPDATE = """
+            {"update_id":700000,"message":{"message_id":40,"from":{"id":5000,"is_bot":false,"first_name":"Operator"},
+            "chat":{"id":-1001000000000,"title":"Status","type":"supergroup"},"date":1760772000,"text":"/help",
+            "entities":[{"offset":0,"length":5,"type":"bot_command"}]}}
+            """;
+
+    private UpdateDispatcher updateDispatcher;
+
+    private WebhookController webhookController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        updateDispatcher = mock(UpdateDispatcher.class);
+        webhookController = new WebhookController(new ObjectMapper(), updateDispatcher);
+        setField(webhookController, "secretToken", SECRET_TOKEN);
+        mockMvc = MockMvcBuilders.standaloneSetup(webhookController)
+                .addPlaceholderValue("bot.webhook.path", PATH)
+                .build();
+    }
+
+    @Test
+    void dispatchesUpdateWithValidSecretToken() throws Exception {
+        mockMvc.perform(post(PATH)
+                        .header(SECRET_TOKEN_HEADER, SECRET_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE))
+                .andExpect(status().isOk());
+
+        var update = ArgumentCaptor.forClass(Update.class);
+        verify(updateDispatcher).dispatch(update.capture());
+        assertThat(update.getValue().getUpdateId()).isEqualTo(700000);
+        assertThat(update.getValue().getMessage().getChatId()).isEqualTo(-1001000000000L);
+        assertThat(update.getValue().getMessage().getText()).isEqualTo("/help");
+    }
+
+    @Test
+    void rejectsWrongSecretToken() throws Exception {
+        mockMvc.perform(post(PATH)
+                        .header(SECRET_TOKEN_HEADER, "wrong-secret")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE))
+                .andExpect(status().isForbidden());
+
+        verify(updateDispatcher, never()).dispatch(any());
+    }
+
+    @Test
+    void rejectsMissingSecretToken() throws Exception {
+        mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE))
+                .andExpect(status().isForbidden());
+
+        verify(updateDispatcher, never()).dispatch(any());
+    }
+
+    @Test
+    void rejectsMalformedUpdate() throws Exception {
+        mockMvc.perform(post(PATH)
+                        .header(SECRET_TOKEN_HEADER, SECRET_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"update_id\":"))
+                .andExpect(status().isBadRequest());
+
+        verify(updateDispatcher, never()).dispatch(any());
+    }
+
+    @Test
+    void acceptsAnyRequestWithoutConfiguredSecretToken() throws Exception {
+        setField(webhookController, "secretToken", "");
+
+        mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(UPDATE))
+                .andExpect(status().isOk());
+
+        verify(updateDispatcher).dispatch(any(Update.class));
+    }
+}
@@ -0,0 +1,117 @@
+package org.zeveon.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Stanislav Vafin
+ */
+class HashRingTest {
+
+    private static final int VIRTUAL_NODES = 64;
+    private static final int HOSTS = 100_000;
+
+    @Test
+    void ownersDoNotDependOnNodeOrder() {
+        var ring = new HashRing(List.of("node-a", "node-b", "node-c"), VIRTUAL_NODES);
+        var reversedRing = new HashRing(List.of("node-c", "node-b", "node-a"), VIRTUAL_NODES);
+
+        LongStream.rangeClosed(1, HOSTS).forEach(hostId ->
+                assertThat(ring.getOwner(hostId)).isEqualTo(reversedRing.getOwner(hostId)));
+        assertThat(ring.getNodeIds()).containsExactly("node-a", "node-b", "node-c");
+    }
+
+    @Test
+    void nodesAgreeOnSingleOwnerOfEveryHost() {
+        var nodeIds = nodeIds(3);
+        var rings = IntStream.range(0, nodeIds.size())
+                .mapToObj(i -> new HashRing(rotate(nodeIds, i), VIRTUAL_NODES))
+                .toList();
+
+        LongStream.rangeClosed(1, HOSTS).forEach(hostId -> {
+            var owners = rings.stream()
+                    .map(ring -> ring.getOwner(hostId).orElseThrow())
+                    .distinct()
+                    .toList();
+            assertThat(owners).hasSize(1);
+            assertThat(nodeIds).contains(owners.get(0));
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 5, 10})
+    void spreadsHostsEvenly(int nodes) {
+        var owned = owners(new HashRing(nodeIds(nodes), VIRTUAL_NODES)).values().stream()
+                .collect(groupingBy(nodeId -> nodeId, counting()));
+
+        assertThat(owned).hasSize(nodes);
+        owned.values().forEach(count -> assertThat(count).isBetween(HOSTS / nodes / 2L, HOSTS / nodes * 2L));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 9})
+    void joiningNodeTakesOnlyItsShare(int nodes) {
+        var before = owners(new HashRing(nodeIds(nodes), VIRTUAL_NODES));
+        var after = owners(new HashRing(nodeIds(nodes + 1), VIRTUAL_NODES));
+        var joinedNodeId = nodeIds(nodes + 1).get(nodes);
+
+        var moved = LongStream.rangeClosed(1, HOSTS)
+                .filter(hostId -> !before.get(hostId).equals(after.get(hostId)))
+                .peek(hostId -> assertThat(after.get(hostId)).isEqualTo(joinedNodeId))
+                .count();
+        assertThat(moved).isBetween(HOSTS / (nodes + 1) / 2L, HOSTS / (nodes + 1) * 2L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 5, 10})
+    void leavingNodeHandsOverOnlyItsHosts(int nodes) {
+        var nodeIds = nodeIds(nodes);
+        var leftNodeId = nodeIds.get(nodes / 2);
+        var before = owners(new HashRing(nodeIds, VIRTUAL_NODES));
+        var after = owners(new HashRing(nodeIds.stream().filter(id -> !id.equals(leftNodeId)).toList(), VIRTUAL_NODES));
+
+        LongStream.rangeClosed(1, HOSTS).forEach(hostId -> {
+            if (before.get(hostId).equals(leftNodeId)) {
+                assertThat(after.get(hostId)).isNotEqualTo(leftNodeId);
+            } else {
+                assertThat(after.get(hostId)).isEqualTo(before.get(hostId));
+            }
+        });
+    }
+
+    @Test
+    void emptyRingOwnsNothing() {
+        assertThat(new HashRing(List.of(), VIRTUAL_NODES).getOwner(1L)).isEmpty();
+    }
+
+    private List<String> nodeIds(int nodes) {
+        return IntStream.range(0, nodes)
+                .mapToObj(i -> "node-" + i)
+                .toList();
+    }
+
+    private List<String> rotate(List<String> nodeIds, int distance) {
+        var rotated = new ArrayList<>(nodeIds);
+        Collections.rotate(rotated, distance);
+        return rotated;
+    }
+
+    private Map<Long, String> owners(HashRing ring) {
+        var owners = new HashMap<Long, String>();
+        LongStream.rangeClosed(1, HOSTS).forEach(hostId -> owners.put(hostId, ring.getOwner(hostId).orElseThrow()));
+        return owners;
+    }
+}
@@ -0,0 +1,127 @@
+package org.zeveon.job;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.zeveon.component.ClusterMembership;
+import org.zeveon.component.HealthCheckMetrics;
+import org.zeveon.component.RabbitSender;
+import org.zeveon.data.HostRegistry;
+import org.zeveon.data.ProbeSchedule;
+import org.zeveon.entity.Host;
+import org.zeveon.entity.Statistic;
+import org.zeveon.entity.StatisticId;
+import org.zeveon.event.ClusterChangedEvent;
+import org.zeveon.model.HostCheckRate;
+import org.zeveon.model.Method;
+import org.zeveon.model.ProbeState;
+import org.zeveon.repository.HostRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * @author Stanislav Vafin
+ */
+class PrepareHostsTaskTest {
+
+    private static final Method METHOD = Method.APACHE_HTTP_CLIENT;
+    private static final int STALE_RESPONSE_CODE = 200;
+    private static final int SAVED_RESPONSE_CODE = 503;
+
+    private final AtomicReference<Set<Long>> ownedHostIds = new AtomicReference<>();
+
+    private HostRepository hostRepository;
+
+    private HostRegistry hostRegistry;
+
+    private ProbeSchedule probeSchedule;
+
+    private PrepareHostsTask prepareHostsTask;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        var clusterMembership = mock(ClusterMembership.class);
+        when(clusterMembership.filterOwned(anyCollection())).thenAnswer(i -> ((Collection<HostCheckRate>) i.getArgument(0))
+                .stream()
+                .filter(c -> ownedHostIds.get().contains(c.getHostId()))
+                .toList());
+        var checkRates = LongStream.rangeClosed(1, 4)
+                .mapToObj(this::checkRate)
+                .toList();
+        hostRepository = mock(HostRepository.class);
+        when(hostRepository.findAllCheckRates()).thenReturn(checkRates);
+        when(hostRepository.findWithStatisticByIdIn(anyCollection())).thenAnswer(i -> ((Collection<Long>) i.getArgument(0))
+                .stream()
+                .map(hostId -> host(hostId, SAVED_RESPONSE_CODE))
+                .toList());
+        hostRegistry = new HostRegistry();
+        hostRegistry.initialize(LongStream.rangeClosed(1, 4)
+                .mapToObj(hostId -> host(hostId, STALE_RESPONSE_CODE))
+                .toList());
+        probeSchedule = new ProbeSchedule();
+        setField(probeSchedule, "inFlightTimeout", Duration.ofMinutes(2));
+        prepareHostsTask = new PrepareHostsTask(mock(RabbitSender.class), clusterMembership, hostRepository,
+                hostRegistry, probeSchedule, mock(HealthCheckMetrics.class));
+    }
+
+    @Test
+    void reloadsStateOfHostsTakenOverAndReleasesHandedOverOnes() {
+        ownedHostIds.set(Set.of(1L, 2L));
+        prepareHostsTask.initializeSchedule();
+        hostRegistry.getAccumulator(3L, METHOD).add(Duration.ofMillis(100));
+
+        ownedHostIds.set(Set.of(2L, 3L));
+        prepareHostsTask.rebalanceSchedule(new ClusterChangedEvent(List.of("node-a", "node-b")));
+
+        assertThat(probeSchedule.getHostIds()).containsExactlyInAnyOrder(2L, 3L);
+        verify(hostRepository).findWithStatisticByIdIn(List.of(3L));
+        assertThat(hostRegistry.getProbeState(3L, METHOD)).map(ProbeState::getResponseCode).contains(SAVED_RESPONSE_CODE);
+        assertThat(hostRegistry.getAccumulator(3L, METHOD).getCount()).isZero();
+        assertThat(hostRegistry.getProbeState(2L, METHOD)).map(ProbeState::getResponseCode).contains(STALE_RESPONSE_CODE);
+        assertThat(hostRegistry.getProbeState(1L, METHOD)).isEmpty();
+        assertThat(hostRegistry.getHostById(1L)).isPresent();
+    }
+
+    @Test
+    void keepsStateWhenOwnershipDoesNotChange() {
+        ownedHostIds.set(Set.of(1L, 2L));
+        prepareHostsTask.initializeSchedule();
+
+        prepareHostsTask.rebalanceSchedule(new ClusterChangedEvent(List.of("node-a")));
+
+        assertThat(probeSchedule.getHostIds()).containsExactlyInAnyOrder(1L, 2L);
+        verify(hostRepository, never()).findWithStatisticByIdIn(any());
+        assertThat(hostRegistry.getProbeState(1L, METHOD)).map(ProbeState::getResponseCode).contains(STALE_RESPONSE_CODE);
+    }
+
+    private HostCheckRate checkRate(Long hostId) {
+        var checkRate = mock(HostCheckRate.class);
+        when(checkRate.getHostId()).thenReturn(hostId);
+        when(checkRate.getMethod()).thenReturn(METHOD);
+        when(checkRate.getCheckRate()).thenReturn(Duration.ofMinutes(1));
+        return checkRate;
+    }
+
+    private Host host(Long hostId, int responseCode) {
+        var host = Host.builder()
+                .id(hostId)
+                .url("host" + hostId + ".example.com")
+                .build();
+        host.getStatistic().add(Statistic.builder()
+                .id(new StatisticId(host, METHOD))
+                .responseCode(responseCode)
+                .build());
+        return host;
+    }
+}
@@ -0,0 +1,103 @@
+package org.zeveon.listener;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.zeveon.cache.Cache;
+import org.zeveon.component.ClusterBroadcaster;
+import org.zeveon.component.ClusterMembership;
+import org.zeveon.event.ChatSettingsChangedEvent;
+import org.zeveon.event.HostsChangedEvent;
+import org.zeveon.event.SubscriptionChangedEvent;
+import org.zeveon.job.PrepareHostsTask;
+import org.zeveon.model.ClusterChange;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.zeveon.model.ClusterChange.Type.*;
+
+/**
+ * @author Stanislav Vafin
+ */
+class ClusterChangeListenerTest {
+
+    private static final String NODE_ID = "node-a";
+    private static final String OTHER_NODE_ID = "node-b";
+
+    private HostRegistryListener hostRegistryListener;
+
+    private ChatSettingsListener chatSettingsListener;
+
+    private PrepareHostsTask prepareHostsTask;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private ClusterChangeListener clusterChangeListener;
+
+    @BeforeEach
+    void setUp() {
+        var clusterMembership = mock(ClusterMembership.class);
+        when(clusterMembership.getNodeId()).thenReturn(NODE_ID);
+        hostRegistryListener = mock(HostRegistryListener.class);
+        chatSettingsListener = mock(ChatSettingsListener.class);
+        prepareHostsTask = mock(PrepareHostsTask.class);
+        cacheManager = new ConcurrentMapCacheManager(Cache.HOSTS, Cache.USERS);
+        clusterChangeListener = new ClusterChangeListener(clusterMembership, hostRegistryListener,
+                chatSettingsListener, prepareHostsTask, cacheManager);
+    }
+
+    @Test
+    void appliesChangesOfOtherNodes() {
+        cacheManager.getCache(Cache.HOSTS).put(-100L, Set.of());
+        cacheManager.getCache(Cache.USERS).put(7L, "user");
+
+        clusterChangeListener.listen(List.of(
+                message(OTHER_NODE_ID, new ClusterChange(HOSTS, List.of(1L, 2L))),
+                message(OTHER_NODE_ID, new ClusterChange(SUBSCRIPTIONS, List.of(1L, 2L, 3L))),
+                message(OTHER_NODE_ID, new ClusterChange(CHAT_SETTINGS, List.of(-100L))),
+                message(OTHER_NODE_ID, new ClusterChange(USERS, List.of(7L)))));
+
+        var hostsChanged = ArgumentCaptor.forClass(HostsChangedEvent.class);
+        verify(hostRegistryListener).updateRegistry(hostsChanged.capture());
+        assertThat(hostsChanged.getValue().getHostIds()).containsExactly(1L, 2L);
+        var subscriptionChanged = ArgumentCaptor.forClass(SubscriptionChangedEvent.class);
+        verify(prepareHostsTask).updateSchedule(subscriptionChanged.capture());
+        assertThat(subscriptionChanged.getValue().getHostIds()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        var chatSettingsChanged = ArgumentCaptor.forClass(ChatSettingsChangedEvent.class);
+        verify(chatSettingsListener).updateSubscriptions(chatSettingsChanged.capture());
+        assertThat(chatSettingsChanged.getValue().getChatId()).isEqualTo(-100L);
+        assertThat(cacheManager.getCache(Cache.HOSTS).get(-100L)).isNull();
+        assertThat(cacheManager.getCache(Cache.USERS).get(7L)).isNull();
+    }
+
+    @Test
+    void skipsOwnChanges() {
+        clusterChangeListener.listen(List.of(
+                message(NODE_ID, new ClusterChange(HOSTS, List.of(1L))),
+                message(NODE_ID, new ClusterChange(CHAT_SETTINGS, List.of(-100L)))));
+
+        verify(hostRegistryListener, never()).updateRegistry(any());
+        verify(chatSettingsListener, never()).updateSubscriptions(any());
+    }
+
+    @Test
+    void restoresChangeFromPayload() {
+        var change = new ClusterChange(SUBSCRIPTIONS, List.of(1L, 20L, 300L));
+
+        assertThat(change.toPayload()).isEqualTo("SUBSCRIPTIONS:1,20,300");
+        assertThat(ClusterChange.fromPayload(change.toPayload())).isEqualTo(change);
+    }
+
+    private Message<String> message(String nodeId, ClusterChange change) {
+        return MessageBuilder.withPayload(change.toPayload())
+                .setHeader(ClusterBroadcaster.NODE_ID, nodeId)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package org.zeveon.listener;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.zeveon.component.HealthBot;
+import org.zeveon.component.HealthCheckMetrics;
+import org.zeveon.controller.UpdateController;
+import org.zeveon.data.HostRegistry;
+import org.zeveon.data.ProbeSchedule;
+import org.zeveon.entity.Host;
+import org.zeveon.model.ExecutionMode;
+import org.zeveon.model.Method;
+import org.zeveon.model.ProbeTask;
+import org.zeveon.service.HealthCheckService;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * @author Stanislav Vafin
+ */
+class HostsListenerTest {
+
+    private static final Method METHOD = Method.APACHE_HTTP_CLIENT;
+
+    private HealthCheckService healthCheckService;
+
+    private ProbeSchedule probeSchedule;
+
+    private HostsListener hostsListener;
+
+    @BeforeEach
+    void setUp() {
+        healthCheckService = mock(HealthCheckService.class);
+        when(healthCheckService.checkHealth(anyLong(), any(), any(), any())).thenReturn(completedFuture(null));
+        var hostRegistry = new HostRegistry();
+        hostRegistry.initialize(List.of(Host.builder()
+                .id(1L)
+                .url("status.example.com")
+                .build()));
+        probeSchedule = mock(ProbeSchedule.class);
+        hostsListener = new HostsListener(healthCheckService, mock(HealthBot.class), mock(UpdateController.class),
+                hostRegistry, probeSchedule, Runnable::run, new Semaphore(1), mock(HealthCheckMetrics.class));
+        setField(hostsListener, "executionMode", ExecutionMode.LISTENER);
+    }
+
+    @Test
+    void checksRegisteredHost() {
+        hostsListener.listen(List.of(message(new ProbeTask(1L, METHOD).toPayload())));
+
+        verify(healthCheckService).checkHealth(eq(1L), eq(METHOD), any(), any());
+        verify(probeSchedule).reschedule(eq(1L), eq(METHOD), any());
+    }
+
+    @Test
+    void releasesProbeOfUnknownHost() {
+        hostsListener.listen(List.of(message(new ProbeTask(2L, METHOD).toPayload())));
+
+        verify(healthCheckService, never()).checkHealth(anyLong(), any(), any(), any());
+        verify(probeSchedule).release(2L, METHOD);
+    }
+
+    @Test
+    void skipsMalformedMessageAndChecksRestOfBatch() {
+        hostsListener.listen(List.of(
+                message("not-a-probe-task"),
+                message("1:99"),
+                message(new ProbeTask(1L, METHOD).toPayload())));
+
+        verify(healthCheckService).checkHealth(eq(1L), eq(METHOD), any(), any());
+    }
+
+    private Message<String> message(String payload) {
+        return MessageBuilder.withPayload(payload).build();
+    }
+}
@@ -0,0 +1,105 @@
+package org.zeveon.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.zeveon.config.EmbeddedPostgresConfig;
+import org.zeveon.model.CheckRollup;
+import org.zeveon.util.LatencyHistogram;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace.NONE;
+import static org.zeveon.model.Method.JAVA_HTTP_CLIENT;
+
+/**
+ * @author Stanislav Vafin
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = NONE)
+@Import({EmbeddedPostgresConfig.class, CheckRollupRepository.class})
+class CheckRollupRepositoryTest {
+
+    private static final Long HOST_ID = 1L;
+    private static final Instant HOUR = Instant.parse("2026-10-18T12:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CheckRollupRepository checkRollupRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS health.check_history_default PARTITION OF health.check_history DEFAULT");
+    }
+
+    @Test
+    void rollsUpHistoryWithOutagesAcrossSliceEdges() {
+        check("11:58:30", 1_000, 500);
+        check("12:00:10", 100, 500);
+        check("12:00:40", 300, 200);
+        check("12:01:10", 1_000, 503);
+        check("12:02:20", 5_000, 200);
+
+        var minutes = checkRollupRepository.rollupMinutes(HOUR, HOUR.plus(Duration.ofMinutes(2)), Duration.ofHours(1));
+        var hours = checkRollupRepository.rollupHours(HOUR, HOUR.plus(Duration.ofMinutes(2)));
+
+        assertThat(minutes).isEqualTo(2);
+        assertThat(hours).isEqualTo(1);
+        assertThat(checkRollupRepository.findMinutes(List.of(HOST_ID), JAVA_HTTP_CLIENT, HOUR, HOUR.plus(Duration.ofMinutes(2))))
+                .extracting(CheckRollup::getChecks, CheckRollup::getOutages)
+                .containsExactly(tuple(2, 0), tuple(1, 1));
+        var rollups = checkRollupRepository.findHours(List.of(HOST_ID), JAVA_HTTP_CLIENT, HOUR, HOUR.plus(Duration.ofHours(1)));
+        assertThat(rollups).singleElement().satisfies(rollup -> {
+            assertThat(rollup.getBucket()).isEqualTo(HOUR);
+            assertThat(rollup.getChecks()).isEqualTo(3);
+            assertThat(rollup.getFailures()).isEqualTo(2);
+            assertThat(rollup.getLatencySum()).isEqualTo(1_400);
+            assertThat(rollup.getLatencyMax()).isEqualTo(1_000);
+            assertThat(rollup.getOutages()).isEqualTo(1);
+            assertThat(rollup.getDowntime()).isEqualTo(30_000 + 70_000);
+            var expected = new LatencyHistogram();
+            List.of(100L, 300L, 1_000L).forEach(expected::add);
+            assertThat(rollup.getHistogram().getTotalCount()).isEqualTo(3);
+            assertThat(rollup.getHistogram().getValueAtQuantile(0.5)).isEqualTo(expected.getValueAtQuantile(0.5));
+            assertThat(rollup.getHistogram().getValueAtQuantile(0.99)).isEqualTo(expected.getValueAtQuantile(0.99));
+        });
+    }
+
+    @Test
+    void rollupIsIdempotent() {
+        check("12:00:10", 100, 200);
+        check("12:00:20", 200, 200);
+
+        checkRollupRepository.rollupMinutes(HOUR, HOUR.plus(Duration.ofMinutes(1)), Duration.ofHours(1));
+        checkRollupRepository.rollupMinutes(HOUR, HOUR.plus(Duration.ofMinutes(1)), Duration.ofHours(1));
+        checkRollupRepository.rollupHours(HOUR, HOUR.plus(Duration.ofMinutes(1)));
+        checkRollupRepository.rollupHours(HOUR, HOUR.plus(Duration.ofMinutes(1)));
+
+        assertThat(checkRollupRepository.findHours(List.of(HOST_ID), JAVA_HTTP_CLIENT, HOUR, HOUR.plus(Duration.ofHours(1))))
+                .singleElement()
+                .satisfies(rollup -> {
+                    assertThat(rollup.getChecks()).isEqualTo(2);
+                    assertThat(rollup.getOutages()).isZero();
+                    assertThat(rollup.getDowntime()).isZero();
+                });
+        assertThat(checkRollupRepository.findLatestMinute()).contains(HOUR);
+    }
+
+    private void check(String time, int latencyMicros, int status) {
+        jdbcTemplate.update("INSERT INTO health.check_history (host_id, method, checked_at, latency_micros, status) VALUES (?, ?, ?, ?, ?)",
+                HOST_ID, (short) JAVA_HTTP_CLIENT.getCode(), HOUR.atOffset(ZoneOffset.UTC).withHour(Integer.parseInt(time.substring(0, 2)))
+                        .withMinute(Integer.parseInt(time.substring(3, 5))).withSecond(Integer.parseInt(time.substring(6))),
+                latencyMicros, (short) status);
+    }
+}
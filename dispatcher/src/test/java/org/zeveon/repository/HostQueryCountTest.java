@@ -0,0 +1,117 @@
+package org.zeveon.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.zeveon.component.AuditorAwareImpl;
+import org.zeveon.component.CustomDateTimeProvider;
+import org.zeveon.config.AuditConfig;
+import org.zeveon.config.EmbeddedPostgresConfig;
+import org.zeveon.data.SubscriptionIndex;
+import org.zeveon.entity.ChatSettings;
+import org.zeveon.entity.Host;
+import org.zeveon.entity.Statistic;
+import org.zeveon.entity.StatisticId;
+import org.zeveon.model.Method;
+import org.zeveon.service.HealthService;
+import org.zeveon.service.impl.ChatSettingsServiceImpl;
+import org.zeveon.service.impl.HealthServiceImpl;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace.NONE;
+
+/**
+ * Statement counts of the host queries, which must not grow with the number of hosts.
+ *
+ * @author Stanislav Vafin
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = NONE)
+@Import({EmbeddedPostgresConfig.class, AuditConfig.class, AuditorAwareImpl.class, CustomDateTimeProvider.class,
+        HealthServiceImpl.class, HostImportRepository.class, ChatSettingsServiceImpl.class, SubscriptionIndex.class})
+class HostQueryCountTest {
+
+    private static final Long CHAT_ID = 1L;
+    private static final Long OTHER_CHAT_ID = 2L;
+    private static final int HOSTS = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private HostRepository hostRepository;
+
+    @Autowired
+    private HealthService healthService;
+
+    private Statistics statistics;
+
+    private Set<Host> hosts;
+
+    @BeforeEach
+    void setUp() {
+        hosts = IntStream.range(0, HOSTS)
+                .mapToObj(i -> host("https://host" + i + ".org"))
+                .collect(toSet());
+        var shared = host("https://shared.org");
+        var chatHosts = new HashSet<>(hosts);
+        chatHosts.add(shared);
+        entityManager.persist(ChatSettings.builder().chatId(CHAT_ID).hosts(chatHosts).build());
+        entityManager.persist(ChatSettings.builder().chatId(OTHER_CHAT_ID).hosts(new HashSet<>(Set.of(shared))).build());
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllCheckRatesUsesSingleStatement() {
+        var checkRates = hostRepository.findAllCheckRates();
+
+        assertThat(checkRates).hasSize(HOSTS + 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findWithStatisticByChatSettingsChatIdFetchesStatisticInSameStatement() {
+        var chatHosts = hostRepository.findWithStatisticByChatSettingsChatId(CHAT_ID);
+        var statisticCount = chatHosts.stream().mapToInt(h -> h.getStatistic().size()).sum();
+
+        assertThat(statisticCount).isEqualTo(HOSTS + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void removeHostsDoesNotQueryPerHost() {
+        var hostIds = hosts.stream().map(Host::getId).collect(toSet());
+
+        healthService.removeHosts(hostIds, CHAT_ID);
+        entityManager.flush();
+
+        // chat settings with hosts, then a batch of their chat settings and statistic; a delete per removed row
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3 + 3L * HOSTS);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(2L * HOSTS);
+        assertThat(hostRepository.count()).isEqualTo(1);
+    }
+
+    private Host host(String url) {
+        var host = Host.builder().url(url).build();
+        host.getStatistic().add(Statistic.builder()
+                .id(StatisticId.builder().host(host).method(Method.APACHE_HTTP_CLIENT).build())
+                .responseTime(Duration.ofMillis(100))
+                .build());
+        return host;
+    }
+}
@@ -0,0 +1,96 @@
+package org.zeveon.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.MessageSource;
+import org.zeveon.entity.Host;
+import org.zeveon.model.CheckRollup;
+import org.zeveon.model.Method;
+import org.zeveon.repository.CheckRollupRepository;
+import org.zeveon.repository.HostRepository;
+import org.zeveon.service.ChatSettingsService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * @author Stanislav Vafin
+ */
+class StatisticServiceImplTest {
+
+    private static final Long CHAT_ID = 1L;
+    private static final Long HOST_ID = 10L;
+
+    private CheckRollupRepository checkRollupRepository;
+
+    private StatisticServiceImpl statisticService;
+
+    @BeforeEach
+    void setUp() {
+        var hostRepository = mock(HostRepository.class);
+        when(hostRepository.findByChatSettingsChatId(CHAT_ID)).thenReturn(Set.of(Host.builder().id(HOST_ID).build()));
+        var chatSettingsService = mock(ChatSettingsService.class);
+        when(chatSettingsService.getChatSettings(CHAT_ID)).thenReturn(Optional.empty());
+        checkRollupRepository = mock(CheckRollupRepository.class);
+        statisticService = new StatisticServiceImpl(mock(MessageSource.class), hostRepository, chatSettingsService,
+                checkRollupRepository);
+        setField(statisticService, "minuteRetention", Duration.ofDays(7));
+    }
+
+    @Test
+    void slaWindowCombinesMinuteEdgesWithHours() {
+        when(checkRollupRepository.findMinutes(anyList(), any(), any(), any()))
+                .thenReturn(List.of(rollup(10, 1)))
+                .thenReturn(List.of(rollup(5, 0)));
+        when(checkRollupRepository.findHours(anyList(), any(), any(), any())).thenReturn(List.of(rollup(100, 4)));
+
+        var start = Instant.now();
+        var reports = statisticService.getSlaReports(CHAT_ID, Duration.ofDays(1));
+        var end = Instant.now();
+
+        var minuteFrom = ArgumentCaptor.forClass(Instant.class);
+        var minuteTo = ArgumentCaptor.forClass(Instant.class);
+        var hourFrom = ArgumentCaptor.forClass(Instant.class);
+        var hourTo = ArgumentCaptor.forClass(Instant.class);
+        verify(checkRollupRepository, times(2)).findMinutes(anyList(), any(Method.class), minuteFrom.capture(), minuteTo.capture());
+        verify(checkRollupRepository).findHours(anyList(), any(Method.class), hourFrom.capture(), hourTo.capture());
+        assertThat(minuteFrom.getAllValues().get(0))
+                .isBetween(start.minus(Duration.ofDays(1)).truncatedTo(MINUTES), end.minus(Duration.ofDays(1)));
+        assertThat(minuteTo.getAllValues().get(0)).isEqualTo(hourFrom.getValue());
+        assertThat(hourFrom.getValue()).isEqualTo(hourFrom.getValue().truncatedTo(HOURS));
+        assertThat(hourTo.getValue()).isEqualTo(minuteFrom.getAllValues().get(1)).isEqualTo(end.truncatedTo(HOURS));
+        assertThat(minuteTo.getAllValues().get(1)).isBetween(start, end);
+        assertThat(reports).singleElement().satisfies(report -> {
+            assertThat(report.getChecks()).isEqualTo(115);
+            assertThat(report.getUptime()).isEqualTo(100.0 * 110 / 115);
+        });
+    }
+
+    @Test
+    void shortSlaWindowReadsMinutesOnly() {
+        statisticService.getSlaReports(CHAT_ID, Duration.ofMinutes(30));
+
+        verify(checkRollupRepository).findMinutes(anyList(), any(Method.class), any(Instant.class), any(Instant.class));
+        verify(checkRollupRepository, never()).findHours(anyList(), any(), any(), any());
+    }
+
+    private CheckRollup rollup(int checks, int failures) {
+        return CheckRollup.builder()
+                .hostId(HOST_ID)
+                .checks(checks)
+                .failures(failures)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package org.zeveon.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Stanislav Vafin
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void lowerBoundsMatchBucketIndexes() {
+        var lowerBounds = LatencyHistogram.getLowerBounds();
+
+        assertThat(lowerBounds).hasSize(LatencyHistogram.BUCKET_COUNT).isSorted();
+        for (int i = 0; i < lowerBounds.length; i++) {
+            assertThat(LatencyHistogram.indexOf(lowerBounds[i])).isEqualTo(i);
+            if (i > 0) {
+                assertThat(LatencyHistogram.indexOf(lowerBounds[i] - 1L)).isEqualTo(i - 1);
+            }
+        }
+    }
+
+    @Test
+    void aggregatedBucketsAreEquivalentToValues() {
+        var histogram = new LatencyHistogram();
+        var aggregated = new LatencyHistogram();
+
+        for (long micros = 1; micros <= 1_000_000; micros *= 10) {
+            histogram.add(micros);
+            histogram.add(micros);
+            aggregated.add(LatencyHistogram.indexOf(micros), 2);
+        }
+
+        assertThat(aggregated.getTotalCount()).isEqualTo(histogram.getTotalCount());
+        assertThat(aggregated.getValueAtQuantile(0.5)).isEqualTo(histogram.getValueAtQuantile(0.5));
+        assertThat(aggregated.getValueAtQuantile(0.99)).isEqualTo(histogram.getValueAtQuantile(0.99));
+    }
+}
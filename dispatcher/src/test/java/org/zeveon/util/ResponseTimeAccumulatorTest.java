@@ -0,0 +1,37 @@
+package org.zeveon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Stanislav Vafin
+ */
+class ResponseTimeAccumulatorTest {
+
+    @Test
+    void tracksMeanEwmaMinAndMax() {
+        var accumulator = new ResponseTimeAccumulator();
+
+        accumulator.add(Duration.ofMillis(100));
+        accumulator.add(Duration.ofMillis(300));
+        accumulator.add(Duration.ofMillis(200));
+
+        assertThat(accumulator.getCount()).isEqualTo(3);
+        assertThat(accumulator.getMean()).isEqualTo(Duration.ofMillis(200));
+        assertThat(accumulator.getEwma()).isEqualTo(Duration.ofMillis(152));
+        assertThat(accumulator.getMin()).isEqualTo(Duration.ofMillis(100));
+        assertThat(accumulator.getMax()).isEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    void reportsZeroBeforeFirstSample() {
+        var accumulator = new ResponseTimeAccumulator();
+
+        assertThat(accumulator.getEwma()).isZero();
+        assertThat(accumulator.getMin()).isZero();
+        assertThat(accumulator.getMax()).isZero();
+    }
+}